@@ -0,0 +1,136 @@
+package ghostyplaytime.benchmarks;
+
+import ghostyplaytime.GhostyPlaytime;
+import ghostyplaytime.LanguageManager;
+import ghostyplaytime.PlaytimeManager;
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitScheduler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+/**
+ * Stand-in for the Bukkit calls the playtime core makes, so it can run without
+ * a server: nobody is online, no player can be looked up and scheduled tasks
+ * are dropped (auto-save, name backfill). Saves still run on the plugin's own
+ * writer thread.
+ */
+final class HeadlessServer {
+
+    private static final Logger LOGGER = Logger.getLogger("GhostyPlaytime-Benchmark");
+    private static Server server;
+
+    private HeadlessServer() {
+    }
+
+    /**
+     * Installs the stand-in as the Bukkit server, once per JVM.
+     */
+    static synchronized Server install() {
+        if (server == null) {
+            LOGGER.setLevel(Level.WARNING);
+            BukkitScheduler scheduler = stub(BukkitScheduler.class);
+            server = (Server) Proxy.newProxyInstance(Server.class.getClassLoader(), new Class<?>[]{Server.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "getLogger" -> LOGGER;
+                        case "getScheduler" -> scheduler;
+                        case "getName", "getVersion", "getBukkitVersion" -> "Headless";
+                        default -> defaultValue(method);
+                    });
+            Bukkit.setServer(server);
+        }
+        return server;
+    }
+
+    /**
+     * Creates a stand-in for the plugin with its own configuration, reading
+     * resources (language files) from the plugin jar. It is never enabled.
+     */
+    static Plugin createPlugin(File dataFolder) {
+        Server server = install();
+        YamlConfiguration config = new YamlConfiguration();
+        config.set("log-saves", false);
+        return (Plugin) Proxy.newProxyInstance(Plugin.class.getClassLoader(), new Class<?>[]{Plugin.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getConfig" -> config;
+                    case "getDataFolder" -> dataFolder;
+                    case "getLogger" -> LOGGER;
+                    case "getServer" -> server;
+                    case "getName" -> "GhostyPlaytime";
+                    case "getResource" -> GhostyPlaytime.class.getClassLoader().getResourceAsStream((String) args[0]);
+                    case "saveResource" -> {
+                        saveResource(dataFolder, (String) args[0], (Boolean) args[1]);
+                        yield null;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "GhostyPlaytime (headless)";
+                    default -> defaultValue(method);
+                });
+    }
+
+    /**
+     * Creates a manager for the stand-in, loading the data in its folder.
+     */
+    static PlaytimeManager createManager(Plugin plugin) {
+        return new PlaytimeManager(plugin, new LanguageManager(plugin));
+    }
+
+    private static void saveResource(File dataFolder, String path, boolean replace) {
+        File target = new File(dataFolder, path);
+        if (target.exists() && !replace) return;
+        try (InputStream in = GhostyPlaytime.class.getClassLoader().getResourceAsStream(path)) {
+            if (in == null) throw new IllegalArgumentException("No resource " + path);
+            target.getParentFile().mkdirs();
+            Files.copy(in, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static File createDataFolder() throws IOException {
+        return Files.createTempDirectory("ghostyplaytime-bench").toFile();
+    }
+
+    static void delete(File folder) throws IOException {
+        if (folder == null || !folder.exists()) return;
+        try (Stream<Path> paths = Files.walk(folder.toPath())) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> defaultValue(method));
+    }
+
+    private static Object defaultValue(Method method) {
+        Class<?> type = method.getReturnType();
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0.0;
+        if (type == float.class) return 0.0f;
+        if (Collection.class.isAssignableFrom(type)) return List.of();
+        return null;
+    }
+}
@@ -0,0 +1,91 @@
+package ghostyplaytime.benchmarks;
+
+import ghostyplaytime.DurationFormatter;
+import ghostyplaytime.LanguageManager;
+import org.bukkit.plugin.Plugin;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Message, lore and time rendering as done for every GUI item, next to the
+ * same calls on the {@link LegacyRendering} baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LanguageBenchmark {
+
+    @Param({"de", "en"})
+    public String language;
+
+    private File dataFolder;
+    private LanguageManager lang;
+    private DurationFormatter formatter;
+    private LegacyRendering legacy;
+    private long seconds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dataFolder = HeadlessServer.createDataFolder();
+        Plugin plugin = HeadlessServer.createPlugin(dataFolder);
+        plugin.getConfig().set("language", language);
+        lang = new LanguageManager(plugin);
+        formatter = lang.getDurationFormatter();
+        legacy = new LegacyRendering(lang.getLangConfig());
+        // 12 days 3 hours 4 minutes 5 seconds, so every unit is printed
+        seconds = 12 * 86400 + 3 * 3600 + 4 * 60 + 5;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        HeadlessServer.delete(dataFolder);
+    }
+
+    @Benchmark
+    public String get() {
+        return lang.get("gui.player.top-head.name", "%rank%", "3", "%player%", "Ger_Gh0stface");
+    }
+
+    @Benchmark
+    public String getLegacy() {
+        return legacy.get("gui.player.top-head.name", "%rank%", "3", "%player%", "Ger_Gh0stface");
+    }
+
+    @Benchmark
+    public String getMessage() {
+        return lang.getMessage("admin.playtime-added", "%time%", "2h 5m", "%player%", "Ger_Gh0stface");
+    }
+
+    @Benchmark
+    public String getMessageLegacy() {
+        return legacy.getMessage("admin.playtime-added", "%time%", "2h 5m", "%player%", "Ger_Gh0stface");
+    }
+
+    @Benchmark
+    public List<String> getLore() {
+        return lang.getLore("gui.admin.detail-head.lore",
+                "%time%", "12T 3h 4m 5s", "%rank%", "42", "%status%", "Online");
+    }
+
+    @Benchmark
+    public List<String> getLoreLegacy() {
+        return legacy.getLore("gui.admin.detail-head.lore",
+                "%time%", "12T 3h 4m 5s", "%rank%", "42", "%status%", "Online");
+    }
+
+    @Benchmark
+    public String formatTime() {
+        return formatter.format(seconds);
+    }
+
+    @Benchmark
+    public String formatTimeLegacy() {
+        return legacy.formatTime(seconds);
+    }
+}
@@ -0,0 +1,74 @@
+package ghostyplaytime.benchmarks;
+
+import org.bukkit.ChatColor;
+import org.bukkit.configuration.file.FileConfiguration;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Message and time rendering as done before messages were compiled into
+ * templates: every call looks the text up in the language config, colors it
+ * and applies one {@link String#replace} per placeholder. Kept as the baseline
+ * for {@link LanguageBenchmark}.
+ */
+final class LegacyRendering {
+
+    private final FileConfiguration lang;
+
+    LegacyRendering(FileConfiguration lang) {
+        this.lang = lang;
+    }
+
+    String get(String key, String... replacements) {
+        String msg = color(lang.getString(key, "&cMissing lang key: " + key));
+        for (int i = 0; i + 1 < replacements.length; i += 2) {
+            msg = msg.replace(replacements[i], replacements[i + 1]);
+        }
+        return msg;
+    }
+
+    String getMessage(String key, String... replacements) {
+        String prefix = color(lang.getString("prefix", "&8[&bGhostyPlaytime&8] &r"));
+        String msg = prefix + color(lang.getString(key, "&cMissing lang key: " + key));
+        for (int i = 0; i + 1 < replacements.length; i += 2) {
+            msg = msg.replace(replacements[i], replacements[i + 1]);
+        }
+        return msg;
+    }
+
+    List<String> getLore(String key, String... replacements) {
+        return lang.getStringList(key).stream().map(this::color).map(line -> {
+            String result = line;
+            for (int i = 0; i + 1 < replacements.length; i += 2) {
+                result = result.replace(replacements[i], replacements[i + 1]);
+            }
+            return result;
+        }).collect(Collectors.toList());
+    }
+
+    String formatTime(long totalSeconds) {
+        long days = totalSeconds / 86400;
+        long hours = (totalSeconds % 86400) / 3600;
+        long minutes = (totalSeconds % 3600) / 60;
+        long seconds = totalSeconds % 60;
+
+        String daySuffix = lang.getString("time-format.day-suffix", "time-format.day-suffix");
+        String hourSuffix = lang.getString("time-format.hour-suffix", "time-format.hour-suffix");
+        String minuteSuffix = lang.getString("time-format.minute-suffix", "time-format.minute-suffix");
+        String secondSuffix = lang.getString("time-format.second-suffix", "time-format.second-suffix");
+
+        StringBuilder sb = new StringBuilder();
+        if (days > 0) sb.append(days).append(daySuffix).append(" ");
+        if (hours > 0 || days > 0) sb.append(hours).append(hourSuffix).append(" ");
+        if (minutes > 0 || hours > 0 || days > 0) sb.append(minutes).append(minuteSuffix).append(" ");
+        sb.append(seconds).append(secondSuffix);
+
+        return sb.toString().trim();
+    }
+
+    private String color(String text) {
+        if (text == null) return "";
+        return ChatColor.translateAlternateColorCodes('&', text);
+    }
+}
@@ -0,0 +1,60 @@
+package ghostyplaytime.benchmarks;
+
+import ghostyplaytime.LanguageManager;
+import ghostyplaytime.PlaytimeManager;
+import org.bukkit.plugin.Plugin;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Start-up cost: loading a stored data set into a new {@link PlaytimeManager}.
+ * Each invocation loads from scratch, so this runs in single-shot mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class LoadBenchmark {
+
+    @Param({"10000", "100000", "1000000", "5000000"})
+    public int players;
+
+    @Param({"yaml"})
+    public String storage;
+
+    private File dataFolder;
+    private Plugin plugin;
+    private LanguageManager language;
+    private PlaytimeManager manager;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dataFolder = HeadlessServer.createDataFolder();
+        Datasets.write(dataFolder, storage, Datasets.uuids(players));
+        plugin = HeadlessServer.createPlugin(dataFolder);
+        plugin.getConfig().set("storage.type", storage);
+        language = new LanguageManager(plugin);
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeManager() {
+        // Releases the store (the H2 file lock in particular) before the next load
+        if (manager != null) manager.shutdown();
+        manager = null;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        HeadlessServer.delete(dataFolder);
+    }
+
+    @Benchmark
+    public PlaytimeManager loadData() {
+        manager = new PlaytimeManager(plugin, language);
+        return manager;
+    }
+}
@@ -0,0 +1,140 @@
+package ghostyplaytime.benchmarks;
+
+import ghostyplaytime.PlaytimeManager;
+import org.bukkit.plugin.Plugin;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queries and updates of a loaded {@link PlaytimeManager}, with a number of
+ * players online whose sessions are merged into every live ranking read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class ManagerBenchmark {
+
+    @Param({"10000", "100000", "1000000", "5000000"})
+    public int players;
+
+    @Param({"yaml"})
+    public String storage;
+
+    @Param({"100"})
+    public int online;
+
+    private File dataFolder;
+    private PlaytimeManager manager;
+    private UUID[] uuids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dataFolder = HeadlessServer.createDataFolder();
+        uuids = Datasets.uuids(players);
+        Datasets.write(dataFolder, storage, uuids);
+        Plugin plugin = HeadlessServer.createPlugin(dataFolder);
+        plugin.getConfig().set("storage.type", storage);
+        manager = HeadlessServer.createManager(plugin);
+        for (int i = 0; i < Math.min(online, players); i++) {
+            manager.startSession(uuids[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        manager.shutdown();
+        HeadlessServer.delete(dataFolder);
+    }
+
+    /** Per-thread source of random players and durations. */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private final SplittableRandom random = new SplittableRandom(7);
+
+        UUID any(ManagerBenchmark benchmark) {
+            return benchmark.uuids[random.nextInt(benchmark.uuids.length)];
+        }
+
+        UUID offline(ManagerBenchmark benchmark) {
+            int from = Math.min(benchmark.online, benchmark.uuids.length - 1);
+            return benchmark.uuids[random.nextInt(from, benchmark.uuids.length)];
+        }
+
+        long seconds() {
+            return random.nextLong(10_000_000L);
+        }
+    }
+
+    @Benchmark
+    public List<Map.Entry<UUID, Long>> getTopPlayers() {
+        return manager.getTopPlayers(10);
+    }
+
+    /**
+     * The live ranking, bypassing the snapshot. Replaces the old per-second
+     * tracking tick: online players are accounted on every read instead.
+     */
+    @Benchmark
+    public List<Map.Entry<UUID, Long>> liveTopPage() {
+        return manager.getPage(0, 10);
+    }
+
+    @Benchmark
+    public int getRank(Cursor cursor) {
+        return manager.getRank(cursor.any(this));
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Map.Entry<UUID, Long>> getAllSorted() {
+        return manager.getAllSorted();
+    }
+
+    @Benchmark
+    public void addPlaytime(Cursor cursor) {
+        manager.addPlaytime(cursor.any(this), 1);
+    }
+
+    /**
+     * A player joining and leaving again, i.e. the session accounting that
+     * replaced the tracking tick.
+     */
+    @Benchmark
+    public void sessionJoinQuit(Cursor cursor) {
+        UUID uuid = cursor.offline(this);
+        manager.startSession(uuid);
+        manager.endSession(uuid);
+    }
+
+    /**
+     * Changes 1000 players and waits until the change is on disk.
+     */
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void saveAll(Cursor cursor) {
+        for (int i = 0; i < 1000; i++) {
+            manager.addPlaytime(cursor.any(this), 1);
+        }
+        manager.saveAll().join();
+    }
+
+    @Benchmark
+    public String formatTime(Cursor cursor) {
+        return manager.formatTime(cursor.seconds());
+    }
+
+    @Benchmark
+    public long getPlaytime(Cursor cursor) {
+        return manager.getPlaytime(cursor.any(this));
+    }
+}
@@ -0,0 +1,240 @@
+package ghostyplaytime;
+
+import ghostyplaytime.storage.ColdIndex;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Players that are not kept in memory, read from a memory-mapped
+ * {@link ColdIndex} in the tiering folder ({@code cold-<generation>.idx}).
+ *
+ * The index file never changes; players moved back into memory are marked as
+ * removed here instead (a sorted array of positions), and ranks skip them.
+ * A new file without the removed players and with newly evicted ones replaces
+ * this tier from time to time.
+ *
+ * Not thread-safe; callers guard it.
+ */
+public class ColdTier {
+
+    private static final String PREFIX = "cold-";
+    private static final String SUFFIX = ".idx";
+
+    private final File folder;
+    private final long generation;
+    private final ColdIndex index;
+    private int[] removed = new int[0];
+    private int removedCount;
+
+    private ColdTier(File folder, long generation, ColdIndex index) {
+        this.folder = folder;
+        this.generation = generation;
+        this.index = index;
+    }
+
+    /**
+     * Maps the newest index file in the folder and deletes older ones.
+     * Returns an empty tier if there is none or it cannot be read.
+     */
+    public static ColdTier open(File folder, Logger logger) {
+        File[] files = folder.listFiles((dir, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+        long newest = 0;
+        if (files != null) {
+            for (File file : files) {
+                newest = Math.max(newest, generationOf(file));
+            }
+        }
+        deleteBefore(folder, newest);
+        if (newest == 0) return new ColdTier(folder, 0, ColdIndex.empty());
+        File file = fileOf(folder, newest);
+        try {
+            return new ColdTier(folder, newest, ColdIndex.open(file));
+        } catch (IOException e) {
+            // Everything is still in the store, so the players simply load into memory
+            logger.warning("Could not read " + file.getName() + ", keeping all players in memory. " + e.getMessage());
+            return new ColdTier(folder, newest, ColdIndex.empty());
+        }
+    }
+
+    /**
+     * Writes the next generation of the index: the players of this tier except
+     * those at the {@code removed} positions (ascending), merged with the given
+     * players, which must be in leaderboard order and not in this tier. Returns
+     * the new tier, which starts without removed players.
+     */
+    public ColdTier rewrite(int[] removed, long[] most, long[] least, long[] values, String[] names, int count)
+            throws IOException {
+        folder.mkdirs();
+        File file = fileOf(folder, generation + 1);
+        ColdIndex.write(file, index.size() - removed.length + count, out -> {
+            int added = 0;
+            int skip = 0;
+            for (int position = 0; position < index.size(); position++) {
+                if (skip < removed.length && removed[skip] == position) {
+                    skip++;
+                    continue;
+                }
+                long seconds = index.seconds(position);
+                long msb = index.mostBits(position);
+                long lsb = index.leastBits(position);
+                while (added < count && ranksBefore(values[added], most[added], least[added], seconds, msb, lsb)) {
+                    out.accept(most[added], least[added], values[added], names[added]);
+                    added++;
+                }
+                out.accept(msb, lsb, seconds, index.name(position));
+            }
+            for (; added < count; added++) {
+                out.accept(most[added], least[added], values[added], names[added]);
+            }
+        });
+        return new ColdTier(folder, generation + 1, ColdIndex.open(file));
+    }
+
+    /**
+     * Returns a copy with the current removed positions. It shares the immutable
+     * index, and later removals here do not change it.
+     */
+    public ColdTier copy() {
+        ColdTier copy = new ColdTier(folder, generation, index);
+        copy.removed = removedPositions();
+        copy.removedCount = removedCount;
+        return copy;
+    }
+
+    /**
+     * Deletes the file of this tier once a newer one replaced it. Where a mapped
+     * file cannot be deleted, the next {@link #open} removes it.
+     */
+    public void delete() {
+        fileOf(folder, generation).delete();
+    }
+
+    private static boolean ranksBefore(long value, long msb, long lsb, long otherValue, long otherMsb, long otherLsb) {
+        if (value != otherValue) return value > otherValue;
+        int c = Long.compare(msb, otherMsb);
+        return c != 0 ? c < 0 : lsb < otherLsb;
+    }
+
+    private static File fileOf(File folder, long generation) {
+        return new File(folder, PREFIX + generation + SUFFIX);
+    }
+
+    private static long generationOf(File file) {
+        String name = file.getName();
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void deleteBefore(File folder, long generation) {
+        File[] files = folder.listFiles((dir, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+        if (files == null) return;
+        for (File file : files) {
+            if (generationOf(file) < generation) file.delete();
+        }
+    }
+
+    public ColdIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Number of positions in the index, including removed players.
+     */
+    public int capacity() {
+        return index.size();
+    }
+
+    /**
+     * Number of players in this tier.
+     */
+    public int size() {
+        return index.size() - removedCount;
+    }
+
+    /**
+     * Returns the position of a player in this tier, or -1.
+     */
+    public int find(long msb, long lsb) {
+        int position = index.find(msb, lsb);
+        return position < 0 || isRemoved(position) ? -1 : position;
+    }
+
+    public boolean isRemoved(int position) {
+        return Arrays.binarySearch(removed, 0, removedCount, position) >= 0;
+    }
+
+    /**
+     * Marks a player as no longer in this tier, e.g. once it is back in memory.
+     */
+    public void remove(int position) {
+        int at = Arrays.binarySearch(removed, 0, removedCount, position);
+        if (at >= 0) return;
+        at = -at - 1;
+        if (removedCount == removed.length) {
+            removed = Arrays.copyOf(removed, Math.max(16, removedCount * 2));
+        }
+        System.arraycopy(removed, at, removed, at + 1, removedCount - at);
+        removed[at] = position;
+        removedCount++;
+    }
+
+    /**
+     * Returns a copy of the removed positions, in ascending order.
+     */
+    public int[] removedPositions() {
+        return Arrays.copyOf(removed, removedCount);
+    }
+
+    public int removedCount() {
+        return removedCount;
+    }
+
+    /**
+     * Number of players in this tier at positions before {@code position}.
+     */
+    public int liveBefore(int position) {
+        int at = Arrays.binarySearch(removed, 0, removedCount, position);
+        return position - (at >= 0 ? at : -at - 1);
+    }
+
+    /**
+     * Number of players in this tier ranking ahead of the given key.
+     */
+    public int countBefore(long value, long msb, long lsb) {
+        return liveBefore(index.countBefore(value, msb, lsb));
+    }
+
+    public Map.Entry<UUID, Long> entry(int position) {
+        return Map.entry(new UUID(index.mostBits(position), index.leastBits(position)), index.seconds(position));
+    }
+
+    public long seconds(int position) {
+        return index.seconds(position);
+    }
+
+    public String name(int position) {
+        return index.name(position);
+    }
+
+    /**
+     * Finds a player in this tier by name (case-insensitive), or returns -1.
+     */
+    public int findByName(String name) {
+        return index.findByName(name, position -> !isRemoved(position));
+    }
+
+    /**
+     * Heap used by this tier in bytes; the index itself is mapped, not on the heap.
+     */
+    public long memoryBytes() {
+        return 4L * removed.length;
+    }
+}
@@ -0,0 +1,90 @@
+package ghostyplaytime;
+
+/**
+ * Formats playtime durations with the unit names of the loaded language.
+ *
+ * Built once per language reload by {@link LanguageManager}, so formatting
+ * does no config lookups. {@link #appendTo(StringBuilder, long)} writes
+ * straight into the caller's builder.
+ */
+public final class DurationFormatter {
+
+    public enum Style {
+        /** {@code 1d 2h 3m 4s} */
+        COMPACT,
+        /** {@code 1 day 2 hours 3 minutes 4 seconds} */
+        LONG,
+        /** {@code 26h} */
+        HOURS
+    }
+
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(32));
+
+    private final Style style;
+    // Indexed by unit: days, hours, minutes, seconds
+    private final String[] suffixes;
+    private final String[] singular;
+    private final String[] plural;
+
+    /**
+     * @param suffixes compact suffixes for days, hours, minutes and seconds
+     * @param singular long singular names in the same order
+     * @param plural   long plural names in the same order
+     */
+    public DurationFormatter(Style style, String[] suffixes, String[] singular, String[] plural) {
+        this.style = style;
+        this.suffixes = suffixes.clone();
+        this.singular = singular.clone();
+        this.plural = plural.clone();
+    }
+
+    public Style getStyle() {
+        return style;
+    }
+
+    public String format(long totalSeconds) {
+        StringBuilder out = BUILDER.get();
+        out.setLength(0);
+        return appendTo(out, totalSeconds).toString();
+    }
+
+    /**
+     * Appends the formatted duration to {@code out} and returns it.
+     */
+    public StringBuilder appendTo(StringBuilder out, long totalSeconds) {
+        if (style == Style.HOURS) {
+            return out.append(totalSeconds / 3600).append(suffixes[1]);
+        }
+        long days = totalSeconds / 86400;
+        long hours = (totalSeconds % 86400) / 3600;
+        long minutes = (totalSeconds % 3600) / 60;
+        long seconds = totalSeconds % 60;
+
+        // Show everything from the largest non-zero unit down to seconds
+        boolean started = appendUnit(out, 0, days, false);
+        started = appendUnit(out, 1, hours, started);
+        started = appendUnit(out, 2, minutes, started);
+        if (started) out.append(' ');
+        appendAmount(out, 3, seconds);
+        return out;
+    }
+
+    /**
+     * Appends a unit (space separated) unless it is zero and nothing was written yet.
+     */
+    private boolean appendUnit(StringBuilder out, int unit, long amount, boolean started) {
+        if (amount == 0 && !started) return false;
+        if (started) out.append(' ');
+        appendAmount(out, unit, amount);
+        return true;
+    }
+
+    private void appendAmount(StringBuilder out, int unit, long amount) {
+        out.append(amount);
+        if (style == Style.LONG) {
+            out.append(' ').append(amount == 1 ? singular[unit] : plural[unit]);
+        } else {
+            out.append(suffixes[unit]);
+        }
+    }
+}
@@ -1,9 +1,19 @@
 package ghostyplaytime;
 
+import ghostyplaytime.api.PlaytimeService;
 import ghostyplaytime.commands.PlaytimeAdminCommand;
 import ghostyplaytime.commands.PlaytimeCommand;
+import ghostyplaytime.gui.AdminGUI;
+import ghostyplaytime.gui.GUIRefresher;
+import ghostyplaytime.gui.GUIRenderer;
+import ghostyplaytime.gui.GUISessions;
+import ghostyplaytime.gui.HeadCache;
+import ghostyplaytime.gui.PlayerGUI;
 import ghostyplaytime.listeners.GUIListener;
 import ghostyplaytime.listeners.PlayerListener;
+import ghostyplaytime.placeholders.PlaceholderResolver;
+import ghostyplaytime.placeholders.PlaytimeExpansion;
+import org.bukkit.plugin.ServicePriority;
 import org.bukkit.plugin.java.JavaPlugin;
 
 public class GhostyPlaytime extends JavaPlugin {
@@ -11,6 +21,13 @@ public class GhostyPlaytime extends JavaPlugin {
     private static GhostyPlaytime instance;
     private PlaytimeManager playtimeManager;
     private LanguageManager languageManager;
+    private HeadCache headCache;
+    private GUISessions guiSessions;
+    private GUIRenderer guiRenderer;
+    private PlayerGUI playerGUI;
+    private AdminGUI adminGUI;
+    private GUIListener guiListener;
+    private PlaceholderResolver placeholderResolver;
 
     @Override
     public void onEnable() {
@@ -19,9 +36,23 @@ public class GhostyPlaytime extends JavaPlugin {
 
         this.languageManager = new LanguageManager(this);
         this.playtimeManager = new PlaytimeManager(this);
+        this.headCache = new HeadCache(this);
+        this.guiSessions = new GUISessions();
+        this.guiRenderer = new GUIRenderer(this);
+        this.playerGUI = new PlayerGUI(this);
+        this.adminGUI = new AdminGUI(this);
+        this.guiListener = new GUIListener(this);
+        new GUIRefresher(this).start();
+        new MetricsExporter(this).start();
+        this.placeholderResolver = new PlaceholderResolver(this);
+        placeholderResolver.start();
+        if (getServer().getPluginManager().getPlugin("PlaceholderAPI") != null) {
+            new PlaytimeExpansion(this).register();
+            getLogger().info("Registered PlaceholderAPI placeholders (%ghostyplaytime_...%).");
+        }
 
         getServer().getPluginManager().registerEvents(new PlayerListener(this), this);
-        getServer().getPluginManager().registerEvents(new GUIListener(this), this);
+        getServer().getPluginManager().registerEvents(guiListener, this);
 
         PlaytimeCommand ptCmd = new PlaytimeCommand(this);
         getCommand("playtime").setExecutor(ptCmd);
@@ -31,13 +62,20 @@ public class GhostyPlaytime extends JavaPlugin {
         getCommand("playtimeadmin").setExecutor(ptaCmd);
         getCommand("playtimeadmin").setTabCompleter(ptaCmd);
 
+        getServer().getServicesManager().register(PlaytimeService.class, new PlaytimeServiceProvider(this),
+                this, ServicePriority.Normal);
+
         getLogger().info(languageManager.getRaw("plugin-enabled"));
     }
 
     @Override
     public void onDisable() {
+        getServer().getServicesManager().unregisterAll(this);
+        if (guiSessions != null) {
+            guiSessions.closeAll();
+        }
         if (playtimeManager != null) {
-            playtimeManager.saveAll();
+            playtimeManager.shutdown();
         }
         getLogger().info("GhostyPlaytime disabled!");
     }
@@ -45,6 +83,8 @@ public class GhostyPlaytime extends JavaPlugin {
     public void reload() {
         reloadConfig();
         languageManager.reload();
+        playtimeManager.reload();
+        headCache.reload();
     }
 
     public static GhostyPlaytime getInstance() {
@@ -58,4 +98,32 @@ public class GhostyPlaytime extends JavaPlugin {
     public LanguageManager getLanguageManager() {
         return languageManager;
     }
+
+    public HeadCache getHeadCache() {
+        return headCache;
+    }
+
+    public GUISessions getGUISessions() {
+        return guiSessions;
+    }
+
+    public GUIRenderer getGUIRenderer() {
+        return guiRenderer;
+    }
+
+    public PlayerGUI getPlayerGUI() {
+        return playerGUI;
+    }
+
+    public AdminGUI getAdminGUI() {
+        return adminGUI;
+    }
+
+    public GUIListener getGUIListener() {
+        return guiListener;
+    }
+
+    public PlaceholderResolver getPlaceholderResolver() {
+        return placeholderResolver;
+    }
 }
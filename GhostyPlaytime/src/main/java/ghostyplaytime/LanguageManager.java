@@ -3,19 +3,29 @@ package ghostyplaytime;
 import org.bukkit.ChatColor;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
+import org.bukkit.plugin.Plugin;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 public class LanguageManager {
 
-    private final GhostyPlaytime plugin;
+    private static final String[] NO_REPLACEMENTS = new String[0];
+
+    private final Plugin plugin;
     private FileConfiguration langConfig;
     private String language;
+    // Compiled at reload into fresh maps, so renders never see a half-built state
+    private volatile Map<String, MessageTemplate> messages = new HashMap<>();
+    private volatile Map<String, MessageTemplate[]> lore = new HashMap<>();
+    private volatile MessageTemplate prefix = MessageTemplate.compile("");
+    private volatile DurationFormatter durationFormatter;
 
-    public LanguageManager(GhostyPlaytime plugin) {
+    public LanguageManager(Plugin plugin) {
         this.plugin = plugin;
         reload();
     }
@@ -23,6 +33,7 @@ public class LanguageManager {
     public void reload() {
         this.language = plugin.getConfig().getString("language", "de");
         loadLangFile(language);
+        compile();
     }
 
     private void loadLangFile(String lang) {
@@ -108,16 +119,14 @@ public class LanguageManager {
      * Returns colored message with prefix.
      */
     public String getMessage(String key) {
-        String prefix = color(langConfig.getString("prefix", "&8[&bGhostyPlaytime&8] &r"));
-        String msg = langConfig.getString(key, "&cMissing lang key: " + key);
-        return prefix + color(msg);
+        return prefix.render() + template(key).render();
     }
 
     /**
      * Returns colored message without prefix.
      */
     public String get(String key) {
-        return color(langConfig.getString(key, "&cMissing lang key: " + key));
+        return template(key).render();
     }
 
     /**
@@ -131,44 +140,87 @@ public class LanguageManager {
      * Returns colored message with placeholders replaced.
      */
     public String get(String key, String... replacements) {
-        String msg = get(key);
-        for (int i = 0; i + 1 < replacements.length; i += 2) {
-            msg = msg.replace(replacements[i], replacements[i + 1]);
-        }
-        return msg;
+        return template(key).render(replacements);
     }
 
     /**
      * Returns message with prefix and replacements.
      */
     public String getMessage(String key, String... replacements) {
-        String msg = getMessage(key);
-        for (int i = 0; i + 1 < replacements.length; i += 2) {
-            msg = msg.replace(replacements[i], replacements[i + 1]);
-        }
-        return msg;
+        StringBuilder out = new StringBuilder();
+        prefix.appendTo(out, replacements);
+        template(key).appendTo(out, replacements);
+        return out.toString();
     }
 
     /**
      * Returns a lore list from the lang config.
      */
     public List<String> getLore(String key) {
-        List<String> lore = langConfig.getStringList(key);
-        return lore.stream().map(this::color).collect(Collectors.toList());
+        return getLore(key, NO_REPLACEMENTS);
     }
 
     /**
      * Returns a lore list with replacements applied.
      */
     public List<String> getLore(String key, String... replacements) {
-        List<String> lore = getLore(key);
-        return lore.stream().map(line -> {
-            String result = line;
-            for (int i = 0; i + 1 < replacements.length; i += 2) {
-                result = result.replace(replacements[i], replacements[i + 1]);
+        MessageTemplate[] lines = lore.get(key);
+        if (lines == null) return new ArrayList<>();
+        List<String> result = new ArrayList<>(lines.length);
+        for (MessageTemplate line : lines) {
+            result.add(line.render(replacements));
+        }
+        return result;
+    }
+
+    private MessageTemplate template(String key) {
+        MessageTemplate template = messages.get(key);
+        return template != null ? template : MessageTemplate.compile(color("&cMissing lang key: " + key));
+    }
+
+    /**
+     * Colors every message and lore line once and splits it into placeholder tokens.
+     */
+    private void compile() {
+        Map<String, MessageTemplate> messages = new HashMap<>();
+        Map<String, MessageTemplate[]> lore = new HashMap<>();
+        for (String key : langConfig.getKeys(true)) {
+            if (langConfig.isList(key)) {
+                List<String> lines = langConfig.getStringList(key);
+                MessageTemplate[] compiled = new MessageTemplate[lines.size()];
+                for (int i = 0; i < compiled.length; i++) {
+                    compiled[i] = MessageTemplate.compile(color(lines.get(i)));
+                }
+                lore.put(key, compiled);
+            } else if (langConfig.isString(key)) {
+                messages.put(key, MessageTemplate.compile(color(langConfig.getString(key))));
             }
-            return result;
-        }).collect(Collectors.toList());
+        }
+        this.messages = messages;
+        this.lore = lore;
+        this.prefix = MessageTemplate.compile(color(langConfig.getString("prefix", "&8[&bGhostyPlaytime&8] &r")));
+        this.durationFormatter = createDurationFormatter();
+    }
+
+    private DurationFormatter createDurationFormatter() {
+        String styleName = plugin.getConfig().getString("time-format", "compact");
+        DurationFormatter.Style style;
+        try {
+            style = DurationFormatter.Style.valueOf(styleName.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            plugin.getLogger().warning("Unknown time-format '" + styleName + "'! Falling back to 'compact'.");
+            style = DurationFormatter.Style.COMPACT;
+        }
+        String[] units = {"day", "hour", "minute", "second"};
+        String[] suffixes = new String[4];
+        String[] singular = new String[4];
+        String[] plural = new String[4];
+        for (int i = 0; i < units.length; i++) {
+            suffixes[i] = getRaw("time-format." + units[i] + "-suffix");
+            singular[i] = getRaw("time-format.long." + units[i]);
+            plural[i] = getRaw("time-format.long." + units[i] + "s");
+        }
+        return new DurationFormatter(style, suffixes, singular, plural);
     }
 
     private String color(String text) {
@@ -176,6 +228,13 @@ public class LanguageManager {
         return ChatColor.translateAlternateColorCodes('&', text);
     }
 
+    /**
+     * Returns the duration formatter for the loaded language and configured time format.
+     */
+    public DurationFormatter getDurationFormatter() {
+        return durationFormatter;
+    }
+
     public FileConfiguration getLangConfig() {
         return langConfig;
     }
@@ -0,0 +1,246 @@
+package ghostyplaytime;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.IntConsumer;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Ranking index over the ids of a {@link PlaytimeTable}, ordered by playtime
+ * (descending), ties broken by UUID. By default the playtime is the table value;
+ * period rankings supply their own values per id.
+ *
+ * Implemented as a size-augmented treap stored in primitive arrays indexed by
+ * player id, so inserts, removals, rank lookups and positional access are all
+ * O(log n) without allocating a node per player. Keys are read from the table,
+ * so a player must be removed before its value changes and inserted again
+ * afterwards. Not thread-safe; callers guard it.
+ */
+public class LeaderboardIndex {
+
+    private static final int NIL = -1;
+
+    private final PlaytimeTable table;
+    private final IntToLongFunction values;
+    private int[] left = new int[0];
+    private int[] right = new int[0];
+    private int[] sizes = new int[0];
+    private int root = NIL;
+
+    public LeaderboardIndex(PlaytimeTable table) {
+        this(table, table::value);
+    }
+
+    /**
+     * @param values playtime per id; must not change while the id is indexed
+     */
+    public LeaderboardIndex(PlaytimeTable table, IntToLongFunction values) {
+        this.table = table;
+        this.values = values;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public void insert(int id) {
+        ensureCapacity(id + 1);
+        left[id] = NIL;
+        right[id] = NIL;
+        sizes[id] = 1;
+        root = insert(root, id);
+    }
+
+    public void remove(int id) {
+        root = erase(root, id);
+    }
+
+    /**
+     * Returns the 1-based rank of an indexed player.
+     */
+    public int rankOf(int id) {
+        int before = 0;
+        int t = root;
+        while (t != NIL) {
+            int c = compare(id, t);
+            if (c == 0) return before + size(left[t]) + 1;
+            if (c < 0) {
+                t = left[t];
+            } else {
+                before += size(left[t]) + 1;
+                t = right[t];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns how many indexed players rank ahead of the given key.
+     * The key does not need to be in the index.
+     */
+    public int countBefore(long value, long msb, long lsb) {
+        int count = 0;
+        int t = root;
+        while (t != NIL) {
+            if (compareKey(value, msb, lsb, t) > 0) {
+                count += size(left[t]) + 1;
+                t = right[t];
+            } else {
+                t = left[t];
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns up to {@code count} entries starting at the 0-based position {@code from}.
+     */
+    public List<Map.Entry<UUID, Long>> range(int from, int count) {
+        int to = (int) Math.min((long) from + Math.max(0, count), size());
+        List<Map.Entry<UUID, Long>> out = new ArrayList<>(Math.max(0, to - from));
+        if (from < to) collect(root, 0, from, to, out);
+        return out;
+    }
+
+    /**
+     * Calls the action with every indexed id, in ranking order.
+     */
+    public void forEach(IntConsumer action) {
+        visit(root, action);
+    }
+
+    /**
+     * Approximate heap footprint of the index arrays in bytes.
+     */
+    public long memoryBytes() {
+        return 4L * (left.length + right.length + sizes.length);
+    }
+
+    private void collect(int t, int offset, int from, int to, List<Map.Entry<UUID, Long>> out) {
+        if (t == NIL || offset >= to || offset + sizes[t] <= from) return;
+        collect(left[t], offset, from, to, out);
+        int pos = offset + size(left[t]);
+        if (pos >= from && pos < to) out.add(Map.entry(table.uuid(t), values.applyAsLong(t)));
+        collect(right[t], pos + 1, from, to, out);
+    }
+
+    private void visit(int t, IntConsumer action) {
+        if (t == NIL) return;
+        visit(left[t], action);
+        action.accept(t);
+        visit(right[t], action);
+    }
+
+    private int insert(int t, int n) {
+        if (t == NIL) return n;
+        if (priority(n) > priority(t)) {
+            splitInto(t, n);
+            pull(n);
+            return n;
+        }
+        if (compare(n, t) < 0) {
+            left[t] = insert(left[t], n);
+        } else {
+            right[t] = insert(right[t], n);
+        }
+        pull(t);
+        return t;
+    }
+
+    private int erase(int t, int id) {
+        if (t == NIL) return NIL;
+        if (t == id) return merge(left[t], right[t]);
+        if (compare(id, t) < 0) {
+            left[t] = erase(left[t], id);
+        } else {
+            right[t] = erase(right[t], id);
+        }
+        pull(t);
+        return t;
+    }
+
+    /**
+     * Splits subtree {@code t} around the key of {@code n} and hangs the parts
+     * below {@code n}.
+     */
+    private void splitInto(int t, int n) {
+        int[] parts = new int[2];
+        split(t, n, parts);
+        left[n] = parts[0];
+        right[n] = parts[1];
+    }
+
+    private void split(int t, int key, int[] parts) {
+        if (t == NIL) {
+            parts[0] = NIL;
+            parts[1] = NIL;
+            return;
+        }
+        if (compare(t, key) < 0) {
+            split(right[t], key, parts);
+            right[t] = parts[0];
+            pull(t);
+            parts[0] = t;
+        } else {
+            split(left[t], key, parts);
+            left[t] = parts[1];
+            pull(t);
+            parts[1] = t;
+        }
+    }
+
+    private int merge(int a, int b) {
+        if (a == NIL) return b;
+        if (b == NIL) return a;
+        if (priority(a) > priority(b)) {
+            right[a] = merge(right[a], b);
+            pull(a);
+            return a;
+        }
+        left[b] = merge(a, left[b]);
+        pull(b);
+        return b;
+    }
+
+    private int compare(int a, int b) {
+        if (a == b) return 0;
+        return compareKey(values.applyAsLong(a), table.mostBits(a), table.leastBits(a), b);
+    }
+
+    private int compareKey(long value, long msb, long lsb, int id) {
+        long other = values.applyAsLong(id);
+        if (value != other) return value > other ? -1 : 1;
+        int c = Long.compare(msb, table.mostBits(id));
+        return c != 0 ? c : Long.compare(lsb, table.leastBits(id));
+    }
+
+    /**
+     * Pseudo-random heap priority derived from the id, so it needs no storage.
+     */
+    private static int priority(int id) {
+        int h = id * 0x9E3779B9;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    private int size(int t) {
+        return t == NIL ? 0 : sizes[t];
+    }
+
+    private void pull(int t) {
+        sizes[t] = 1 + size(left[t]) + size(right[t]);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= left.length) return;
+        int length = Math.max(capacity, Math.max(16, left.length * 2));
+        left = Arrays.copyOf(left, length);
+        right = Arrays.copyOf(right, length);
+        sizes = Arrays.copyOf(sizes, length);
+    }
+}
@@ -0,0 +1,191 @@
+package ghostyplaytime;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * A frozen copy of the leaderboard shared by all viewers, published by
+ * {@link PlaytimeManager#getSnapshot()}.
+ *
+ * The players in memory, including the live values of online players, are
+ * copied into sorted arrays by a background task; players in the cold tier
+ * are read from its immutable index with the removed positions at the end of
+ * that copy. Every page therefore shows the same ranking, however much later it
+ * is read. Pages are kept once built, so further viewers of the same page just
+ * get the cached slice until the next snapshot replaces this one.
+ */
+public final class LeaderboardSnapshot {
+
+    private final long version;
+    private final long createdNanos;
+    private final long[] most;
+    private final long[] least;
+    private final long[] values;
+    private final ColdTier cold;
+    private final int size;
+    private final Map<Long, List<Map.Entry<UUID, Long>>> pages = new ConcurrentHashMap<>();
+    // Positions of the players in memory ordered by UUID, built on the first lookup
+    private volatile int[] byUuid;
+
+    /**
+     * @param most   most significant UUID bits of the players in memory, in leaderboard order
+     * @param least  least significant UUID bits, in the same order
+     * @param values playtime, in the same order
+     * @param cold   a copy of the cold tier that is no longer changed, or null
+     */
+    LeaderboardSnapshot(long version, long createdNanos, long[] most, long[] least, long[] values, ColdTier cold) {
+        this.version = version;
+        this.createdNanos = createdNanos;
+        this.most = most;
+        this.least = least;
+        this.values = values;
+        this.cold = cold != null && cold.size() > 0 ? cold : null;
+        this.size = values.length + (this.cold != null ? this.cold.size() : 0);
+    }
+
+    /**
+     * Returns up to {@code count} players starting at the 0-based rank offset {@code from}.
+     * The returned list is unmodifiable.
+     */
+    public List<Map.Entry<UUID, Long>> page(int from, int count) {
+        long key = ((long) from << 32) | (count & 0xFFFFFFFFL);
+        return pages.computeIfAbsent(key, k -> List.copyOf(load(Math.max(0, from), count)));
+    }
+
+    private List<Map.Entry<UUID, Long>> load(int from, int count) {
+        if (count <= 0 || from >= size) return List.of();
+        int hot = from;
+        int position = 0;
+        int capacity = 0;
+        if (cold != null) {
+            // First cold position at or behind the slice start; the overall rank
+            // of the cold players grows with their position, so it can be bisected
+            capacity = cold.capacity();
+            int low = 0;
+            int high = capacity;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cold.liveBefore(mid) + hotBefore(mid) < from) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            position = low;
+            hot = from - cold.liveBefore(low);
+        }
+
+        List<Map.Entry<UUID, Long>> result = new ArrayList<>(Math.min(count, size - from));
+        while (result.size() < count) {
+            while (position < capacity && cold.isRemoved(position)) position++;
+            boolean hasHot = hot < values.length;
+            if (position < capacity && (!hasHot || !hotRanksBefore(hot, position))) {
+                result.add(cold.entry(position++));
+            } else if (hasHot) {
+                result.add(Map.entry(new UUID(most[hot], least[hot]), values[hot]));
+                hot++;
+            } else {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Number of players in memory ranking ahead of the cold player at a position.
+     */
+    private int hotBefore(int position) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (hotRanksBefore(mid, position)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private boolean hotRanksBefore(int hot, int position) {
+        long seconds = cold.seconds(position);
+        if (values[hot] != seconds) return values[hot] > seconds;
+        int c = Long.compare(most[hot], cold.getIndex().mostBits(position));
+        return c != 0 ? c < 0 : least[hot] < cold.getIndex().leastBits(position);
+    }
+
+    /**
+     * Returns the 1-based rank of a player in this snapshot, or -1 if the
+     * player was not on the leaderboard when it was taken.
+     */
+    public int rank(UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        int hot = findHot(msb, lsb);
+        if (hot >= 0) return hot + (cold != null ? cold.countBefore(values[hot], msb, lsb) : 0) + 1;
+        int position = cold != null ? cold.find(msb, lsb) : -1;
+        return position < 0 ? -1 : cold.liveBefore(position) + hotBefore(position) + 1;
+    }
+
+    /**
+     * Returns a player's playtime in this snapshot, or -1 if the player was not
+     * on the leaderboard when it was taken.
+     */
+    public long playtime(UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        int hot = findHot(msb, lsb);
+        if (hot >= 0) return values[hot];
+        int position = cold != null ? cold.find(msb, lsb) : -1;
+        return position < 0 ? -1 : cold.seconds(position);
+    }
+
+    private int findHot(long msb, long lsb) {
+        int[] order = byUuid;
+        if (order == null) {
+            order = IntStream.range(0, values.length).boxed()
+                    .sorted(Comparator.<Integer>comparingLong(i -> most[i]).thenComparingLong(i -> least[i]))
+                    .mapToInt(Integer::intValue).toArray();
+            byUuid = order;
+        }
+        int low = 0;
+        int high = order.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int at = order[mid];
+            int c = most[at] != msb ? Long.compare(most[at], msb) : Long.compare(least[at], lsb);
+            if (c < 0) {
+                low = mid + 1;
+            } else if (c > 0) {
+                high = mid - 1;
+            } else {
+                return at;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Number of players at the time the snapshot was taken.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Change counter of the leaderboard when the snapshot was taken.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    long getCreatedNanos() {
+        return createdNanos;
+    }
+}
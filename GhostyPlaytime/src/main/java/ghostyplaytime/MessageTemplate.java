@@ -0,0 +1,103 @@
+package ghostyplaytime;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A colored message split into literal text and {@code %placeholder%} tokens.
+ *
+ * Compiled once by {@link LanguageManager#reload()}; rendering is a single pass
+ * that appends literals and looks each placeholder up in the replacement pairs.
+ * Placeholders without a replacement are kept as written.
+ */
+final class MessageTemplate {
+
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(128));
+
+    // parts[i] is a placeholder (including the % signs) if placeholder[i] is set, literal text otherwise
+    private final String[] parts;
+    private final boolean[] placeholder;
+    private final String plain;
+
+    private MessageTemplate(String[] parts, boolean[] placeholder, String plain) {
+        this.parts = parts;
+        this.placeholder = placeholder;
+        this.plain = plain;
+    }
+
+    /**
+     * Compiles an already colored message.
+     */
+    static MessageTemplate compile(String text) {
+        List<String> parts = new ArrayList<>();
+        List<Boolean> kinds = new ArrayList<>();
+        int literalStart = 0;
+        int i = 0;
+        while (i < text.length()) {
+            int end = text.charAt(i) == '%' ? placeholderEnd(text, i) : -1;
+            if (end < 0) {
+                i++;
+                continue;
+            }
+            if (i > literalStart) {
+                parts.add(text.substring(literalStart, i));
+                kinds.add(false);
+            }
+            parts.add(text.substring(i, end + 1));
+            kinds.add(true);
+            i = end + 1;
+            literalStart = i;
+        }
+        if (literalStart < text.length()) {
+            parts.add(text.substring(literalStart));
+            kinds.add(false);
+        }
+        boolean[] placeholder = new boolean[kinds.size()];
+        for (int k = 0; k < placeholder.length; k++) {
+            placeholder[k] = kinds.get(k);
+        }
+        return new MessageTemplate(parts.toArray(new String[0]), placeholder, text);
+    }
+
+    /**
+     * Returns the index of the closing % of a placeholder starting at {@code start}, or -1.
+     */
+    private static int placeholderEnd(String text, int start) {
+        for (int i = start + 1; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '%') return i > start + 1 ? i : -1;
+            if (!(Character.isLetterOrDigit(c) || c == '_' || c == '-')) return -1;
+        }
+        return -1;
+    }
+
+    String render() {
+        return plain;
+    }
+
+    /**
+     * Renders the message with the given placeholder/value pairs.
+     */
+    String render(String... replacements) {
+        if (replacements.length < 2) return plain;
+        StringBuilder out = BUILDER.get();
+        out.setLength(0);
+        appendTo(out, replacements);
+        return out.toString();
+    }
+
+    void appendTo(StringBuilder out, String... replacements) {
+        for (int i = 0; i < parts.length; i++) {
+            String part = parts[i];
+            if (placeholder[i]) {
+                for (int r = 0; r + 1 < replacements.length; r += 2) {
+                    if (part.equals(replacements[r])) {
+                        part = replacements[r + 1];
+                        break;
+                    }
+                }
+            }
+            out.append(part);
+        }
+    }
+}
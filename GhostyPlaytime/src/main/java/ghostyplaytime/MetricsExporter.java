@@ -0,0 +1,147 @@
+package ghostyplaytime;
+
+import ghostyplaytime.gui.GUIHolder;
+import ghostyplaytime.gui.GUIRenderer;
+import ghostyplaytime.gui.HeadCache;
+import ghostyplaytime.storage.AtomicFiles;
+import ghostyplaytime.storage.SaveService;
+import org.bukkit.Bukkit;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Periodically writes the plugin's metrics in the Prometheus text format, for
+ * node_exporter's textfile collector to pick up. Latencies are exported as
+ * summaries in seconds with the p50/p90/p99 bucket bounds of the histograms.
+ */
+public class MetricsExporter {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+
+    private final GhostyPlaytime plugin;
+
+    public MetricsExporter(GhostyPlaytime plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Schedules the export every {@code metrics.export-interval} seconds, unless
+     * no file is configured or the interval is 0.
+     */
+    public void start() {
+        String path = plugin.getConfig().getString("metrics.prometheus-file", "metrics.prom");
+        int interval = plugin.getConfig().getInt("metrics.export-interval", 30);
+        if (path == null || path.isEmpty() || interval <= 0) return;
+        File file = new File(path);
+        File target = file.isAbsolute() ? file : new File(plugin.getDataFolder(), path);
+        long ticks = interval * 20L;
+        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> export(target), ticks, ticks);
+    }
+
+    private void export(File file) {
+        try {
+            // Atomic, so the collector never reads a half-written file
+            AtomicFiles.write(file, render().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            plugin.getLogger().warning("Could not write metrics to " + file + "! " + e.getMessage());
+        }
+    }
+
+    /**
+     * Renders all metrics in the Prometheus text exposition format.
+     */
+    public String render() {
+        StringBuilder out = new StringBuilder(4096);
+        PlaytimeManager manager = plugin.getPlaytimeManager();
+        SaveService saves = manager.getSaveService();
+
+        gauge(out, "ghostyplaytime_players", "Players with recorded playtime.", manager.getPlayerCount());
+        gauge(out, "ghostyplaytime_cold_players", "Players kept on disk only (tiering).", manager.getColdPlayerCount());
+        gauge(out, "ghostyplaytime_sessions", "Online players whose session is accounted.", manager.getSessionCount());
+        gauge(out, "ghostyplaytime_memory_bytes", "Approximate heap used by the playtime data.", manager.memoryBytes());
+        gauge(out, "ghostyplaytime_load_seconds", "Duration of the initial load.", manager.getLoadMillis() / 1000.0);
+        gauge(out, "ghostyplaytime_load_peak_heap_bytes", "Peak heap usage during the initial load.",
+                manager.getLoadPeakHeapBytes());
+        summary(out, "ghostyplaytime_tracking_seconds", "Session accounting pass before each save.",
+                null, Map.of("", manager.getTrackingTimes()));
+
+        summary(out, "ghostyplaytime_save_seconds", "Duration of saves including housekeeping.",
+                null, Map.of("", saves.getFlushTimes()));
+        counter(out, "ghostyplaytime_save_entries_total", "Player values written by saves.", manager.getSavedEntries());
+        counter(out, "ghostyplaytime_save_bytes_total", "Bytes written by the store (0 if unknown).",
+                manager.getStore().getBytesWritten());
+
+        GUIRenderer renderer = plugin.getGUIRenderer();
+        Map<String, LatencyHistogram> build = new LinkedHashMap<>();
+        Map<String, LatencyHistogram> open = new LinkedHashMap<>();
+        Map<String, LatencyHistogram> click = new LinkedHashMap<>();
+        for (GUIHolder.Type type : GUIHolder.Type.values()) {
+            String view = type.name().toLowerCase(Locale.ROOT);
+            build.put(view, renderer.getBuildTimes(type));
+            open.put(view, renderer.getOpenTimes(type));
+            click.put(view, plugin.getGUIListener().getClickTimes(type));
+        }
+        summary(out, "ghostyplaytime_gui_build_seconds", "Building a GUI view off the main thread.", "view", build);
+        summary(out, "ghostyplaytime_gui_open_seconds", "Filling and opening a GUI view on the main thread.", "view", open);
+        summary(out, "ghostyplaytime_gui_click_seconds", "Handling a click in a GUI view on the main thread.", "view", click);
+        gauge(out, "ghostyplaytime_gui_open_views", "GUI views currently open.", plugin.getGUISessions().count());
+
+        HeadCache heads = plugin.getHeadCache();
+        gauge(out, "ghostyplaytime_head_cache_size", "Player heads in the cache.", heads.size());
+        counter(out, "ghostyplaytime_head_cache_hits_total", "Head cache hits.", heads.getHits());
+        counter(out, "ghostyplaytime_head_cache_misses_total", "Head cache misses.", heads.getMisses());
+        counter(out, "ghostyplaytime_head_cache_evictions_total", "Heads evicted from the cache.", heads.getEvictions());
+        return out.toString();
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, double value) {
+        header(out, name, help, "gauge");
+        out.append(name).append(' ').append(number(value)).append('\n');
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, long value) {
+        header(out, name, help, "gauge");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        header(out, name, help, "counter");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    /**
+     * Writes one summary with a sample set per label value; {@code label} is null for a single unlabeled set.
+     */
+    private static void summary(StringBuilder out, String name, String help, String label,
+                                Map<String, LatencyHistogram> histograms) {
+        header(out, name, help, "summary");
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+            String labels = label == null ? "" : label + "=\"" + entry.getKey() + "\"";
+            for (double quantile : QUANTILES) {
+                out.append(name).append('{');
+                if (!labels.isEmpty()) out.append(labels).append(',');
+                out.append("quantile=\"").append(quantile).append("\"} ")
+                        .append(number(histogram.getPercentileMillis(quantile * 100) / 1000.0)).append('\n');
+            }
+            String suffix = labels.isEmpty() ? "" : "{" + labels + "}";
+            out.append(name).append("_sum").append(suffix).append(' ')
+                    .append(number(histogram.getTotalMillis() / 1000.0)).append('\n');
+            out.append(name).append("_count").append(suffix).append(' ').append(histogram.getCount()).append('\n');
+        }
+    }
+
+    private static void header(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static String number(double value) {
+        return String.format(Locale.ROOT, "%.6g", value);
+    }
+}
@@ -0,0 +1,141 @@
+package ghostyplaytime;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-server playtime counters for network mode, merged without coordination.
+ *
+ * Every server owns one PN-counter per player: an increment and a decrement
+ * total that both only ever grow. Only the owning server writes its counters;
+ * the others merge them by taking the maximum of each half, so merging is
+ * idempotent and order-independent and a stale copy never undoes a newer one.
+ * A player's network playtime is the sum of (increments - decrements) over all
+ * servers. Counters are indexed by {@link PlaytimeTable} id.
+ *
+ * Not thread-safe; callers guard it.
+ */
+public class NetworkCounters {
+
+    private final Counters own = new Counters();
+    private final Map<String, Counters> remote = new HashMap<>();
+    private boolean ownChanged;
+
+    /**
+     * Records a change made on this server.
+     */
+    public void recordLocal(int id, long delta) {
+        if (delta == 0) return;
+        own.ensure(id);
+        if (delta > 0) {
+            own.up[id] += delta;
+        } else {
+            own.down[id] -= delta;
+        }
+        ownChanged = true;
+    }
+
+    /**
+     * Replaces this server's counters of a player, e.g. when loading them.
+     */
+    public void setOwn(int id, long up, long down) {
+        own.ensure(id);
+        own.up[id] = up;
+        own.down[id] = down;
+    }
+
+    public void clearOwn() {
+        Arrays.fill(own.up, 0);
+        Arrays.fill(own.down, 0);
+    }
+
+    /**
+     * Merges a player's counters as published by another server and returns
+     * how much that server's contribution changed.
+     */
+    public long merge(String server, int id, long up, long down) {
+        Counters counters = remote.computeIfAbsent(server, s -> new Counters());
+        long before = counters.value(id);
+        counters.ensure(id);
+        counters.up[id] = Math.max(counters.up[id], up);
+        counters.down[id] = Math.max(counters.down[id], down);
+        return counters.value(id) - before;
+    }
+
+    /**
+     * Network-wide playtime of a player.
+     */
+    public long total(int id) {
+        long total = own.value(id);
+        for (Counters counters : remote.values()) {
+            total += counters.value(id);
+        }
+        return total;
+    }
+
+    public long ownUp(int id) {
+        return id < own.up.length ? own.up[id] : 0;
+    }
+
+    public long ownDown(int id) {
+        return id < own.down.length ? own.down[id] : 0;
+    }
+
+    /**
+     * Exclusive upper bound of the ids with counters on this server.
+     */
+    public int ownLimit() {
+        return own.up.length;
+    }
+
+    /**
+     * Returns true if this server's counters changed since the flag was last cleared.
+     */
+    public boolean isOwnChanged() {
+        return ownChanged;
+    }
+
+    public void setOwnChanged(boolean ownChanged) {
+        this.ownChanged = ownChanged;
+    }
+
+    /**
+     * Number of other servers merged so far.
+     */
+    public int getServerCount() {
+        return remote.size();
+    }
+
+    /**
+     * Approximate heap footprint of all counters in bytes.
+     */
+    public long memoryBytes() {
+        long bytes = own.memoryBytes();
+        for (Counters counters : remote.values()) {
+            bytes += counters.memoryBytes();
+        }
+        return bytes;
+    }
+
+    private static final class Counters {
+
+        long[] up = new long[0];
+        long[] down = new long[0];
+
+        void ensure(int id) {
+            if (id < up.length) return;
+            int capacity = Math.max(id + 1, Math.max(16, up.length * 2));
+            up = Arrays.copyOf(up, capacity);
+            down = Arrays.copyOf(down, capacity);
+        }
+
+        long value(int id) {
+            return id < up.length ? up[id] - down[id] : 0;
+        }
+
+        long memoryBytes() {
+            return 16L * up.length;
+        }
+    }
+}
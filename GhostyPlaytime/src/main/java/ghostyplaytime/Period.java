@@ -0,0 +1,43 @@
+package ghostyplaytime;
+
+/**
+ * Leaderboard periods. Windows are rolling and end with the current day, so
+ * {@link #WEEK} is today plus the six days before.
+ */
+public enum Period {
+    ALL(0),
+    DAY(1),
+    WEEK(7),
+    MONTH(30);
+
+    private final int days;
+
+    Period(int days) {
+        this.days = days;
+    }
+
+    /**
+     * Length of the window in days, or 0 for all-time.
+     */
+    public int getDays() {
+        return days;
+    }
+
+    /**
+     * Returns the next period, wrapping around, e.g. for a toggle button.
+     */
+    public Period next() {
+        Period[] all = values();
+        return all[(ordinal() + 1) % all.length];
+    }
+
+    /**
+     * Parses a period name, or returns null if unknown.
+     */
+    public static Period parse(String name) {
+        for (Period period : values()) {
+            if (period.name().equalsIgnoreCase(name)) return period;
+        }
+        return null;
+    }
+}
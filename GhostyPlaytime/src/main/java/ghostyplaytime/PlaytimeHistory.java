@@ -0,0 +1,275 @@
+package ghostyplaytime;
+
+import java.util.*;
+
+/**
+ * Daily playtime buckets with rolling period leaderboards.
+ *
+ * Each retained day is a column mapping table ids to the seconds played that
+ * day (open addressing over {@code int[]}, so only active players take space);
+ * the columns form a ring of {@code retention} days. For every {@link Period}
+ * except {@link Period#ALL} the window total per id is kept in a {@code long[]}
+ * and ranked by its own {@link LeaderboardIndex}, holding only players with
+ * time in the window. Adding time and rolling over to a new day only touch the
+ * players in the affected columns; nothing is ever recomputed in full. A day
+ * holds at most {@link Integer#MAX_VALUE} seconds per player, further time on
+ * that day is dropped, so window totals always stay exact sums of their days.
+ *
+ * Not thread-safe; callers guard it.
+ */
+public class PlaytimeHistory {
+
+    private static final Period[] PERIODS = {Period.DAY, Period.WEEK, Period.MONTH};
+
+    private final PlaytimeTable table;
+    private final int retention;
+    private final DayColumn[] ring;
+    private final long[][] windows = new long[PERIODS.length][0];
+    private final LeaderboardIndex[] indexes = new LeaderboardIndex[PERIODS.length];
+    private final Set<Long> dirtyDays = new HashSet<>();
+    private long today;
+
+    /**
+     * @param retention number of days kept, at least 1
+     * @param today     current epoch day
+     */
+    public PlaytimeHistory(PlaytimeTable table, int retention, long today) {
+        this.table = table;
+        this.retention = Math.max(1, retention);
+        this.ring = new DayColumn[this.retention];
+        this.today = today;
+        for (int p = 0; p < PERIODS.length; p++) {
+            int period = p;
+            indexes[p] = new LeaderboardIndex(table, id -> windows[period][id]);
+        }
+    }
+
+    /**
+     * Adds seconds played by a player on the given day. Days before the
+     * retention window are ignored; a later day rolls the history forward.
+     */
+    public void add(int id, int seconds, long day) {
+        if (seconds <= 0) return;
+        roll(day);
+        if (day <= today - retention) return;
+        DayColumn column = column(day, true);
+        int added = column.add(id, seconds);
+        dirtyDays.add(day);
+        if (added == 0) return;
+        for (int p = 0; p < PERIODS.length; p++) {
+            if (day > today - windowDays(p)) adjust(p, id, added);
+        }
+    }
+
+    /**
+     * Moves the current day forward, dropping the days that leave each window
+     * and the day that falls out of retention.
+     */
+    public void roll(long day) {
+        if (day <= today) return;
+        if (day - today >= retention) {
+            Arrays.fill(ring, null);
+            for (int p = 0; p < PERIODS.length; p++) {
+                for (int id = 0; id < windows[p].length; id++) {
+                    if (windows[p][id] > 0) {
+                        indexes[p].remove(id);
+                        windows[p][id] = 0;
+                    }
+                }
+            }
+            dirtyDays.clear();
+            today = day;
+            return;
+        }
+        while (today < day) {
+            today++;
+            for (int p = 0; p < PERIODS.length; p++) {
+                DayColumn leaving = column(today - windowDays(p), false);
+                if (leaving == null) continue;
+                for (int slot = 0; slot < leaving.keys.length; slot++) {
+                    if (leaving.keys[slot] != 0) adjust(p, leaving.keys[slot] - 1, -leaving.values[slot]);
+                }
+            }
+            // The ring slot of the new day still holds the day that just left retention
+            ring[Math.floorMod(today, retention)] = null;
+            dirtyDays.remove(today - retention);
+        }
+    }
+
+    private void adjust(int p, int id, long delta) {
+        if (id >= windows[p].length) {
+            windows[p] = Arrays.copyOf(windows[p], Math.max(id + 1, Math.max(16, windows[p].length * 2)));
+        }
+        if (windows[p][id] > 0) indexes[p].remove(id);
+        windows[p][id] = Math.max(0, windows[p][id] + delta);
+        if (windows[p][id] > 0) indexes[p].insert(id);
+    }
+
+    private int windowDays(int p) {
+        return Math.min(PERIODS[p].getDays(), retention);
+    }
+
+    private DayColumn column(long day, boolean create) {
+        int slot = Math.floorMod(day, retention);
+        DayColumn column = ring[slot];
+        if (column != null && column.day == day) return column;
+        if (!create) return null;
+        column = new DayColumn(day);
+        ring[slot] = column;
+        return column;
+    }
+
+    private static int index(Period period) {
+        for (int p = 0; p < PERIODS.length; p++) {
+            if (PERIODS[p] == period) return p;
+        }
+        throw new IllegalArgumentException("No history for period " + period);
+    }
+
+    /**
+     * Returns up to {@code count} players of the period ranking, starting at the 0-based position {@code from}.
+     */
+    public List<Map.Entry<UUID, Long>> range(Period period, int from, int count) {
+        return indexes[index(period)].range(from, count);
+    }
+
+    /**
+     * Number of players with time in the period.
+     */
+    public int size(Period period) {
+        return indexes[index(period)].size();
+    }
+
+    /**
+     * Seconds played in the period by the player with the given id.
+     */
+    public long value(Period period, int id) {
+        long[] window = windows[index(period)];
+        return id < window.length ? window[id] : 0;
+    }
+
+    /**
+     * Returns 1-based rank in the period, or -1 if the player has no time in it.
+     */
+    public int rankOf(Period period, int id) {
+        return value(period, id) > 0 ? indexes[index(period)].rankOf(id) : -1;
+    }
+
+    public long getToday() {
+        return today;
+    }
+
+    /**
+     * First day still retained.
+     */
+    public long getFirstDay() {
+        return today - retention + 1;
+    }
+
+    /**
+     * Returns the buckets of every day changed since the last call and clears
+     * the changed marks.
+     */
+    public List<DayBuckets> drainDirty() {
+        List<DayBuckets> result = new ArrayList<>(dirtyDays.size());
+        for (long day : dirtyDays) {
+            DayColumn column = column(day, false);
+            if (column == null) continue;
+            long[] most = new long[column.size];
+            long[] least = new long[column.size];
+            int[] seconds = new int[column.size];
+            int n = 0;
+            for (int slot = 0; slot < column.keys.length; slot++) {
+                if (column.keys[slot] == 0) continue;
+                int id = column.keys[slot] - 1;
+                most[n] = table.mostBits(id);
+                least[n] = table.leastBits(id);
+                seconds[n++] = column.values[slot];
+            }
+            result.add(new DayBuckets(day, most, least, seconds, n));
+        }
+        dirtyDays.clear();
+        return result;
+    }
+
+    public void markDirty(long day) {
+        dirtyDays.add(day);
+    }
+
+    /**
+     * Approximate heap footprint of the columns, windows and indexes in bytes.
+     */
+    public long memoryBytes() {
+        long bytes = 0;
+        for (DayColumn column : ring) {
+            if (column != null) bytes += 8L * column.keys.length;
+        }
+        for (int p = 0; p < PERIODS.length; p++) {
+            bytes += 8L * windows[p].length + indexes[p].memoryBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Copy of one day's buckets as parallel UUID halves / seconds arrays.
+     */
+    public record DayBuckets(long day, long[] most, long[] least, int[] seconds, int count) {
+    }
+
+    /**
+     * Seconds per player id for one day. Keys hold id + 1, 0 marks an empty slot.
+     */
+    private static final class DayColumn {
+
+        final long day;
+        int[] keys = new int[16];
+        int[] values = new int[16];
+        int size;
+
+        DayColumn(long day) {
+            this.day = day;
+        }
+
+        /**
+         * Adds seconds, saturating at {@link Integer#MAX_VALUE}, and returns how many were added.
+         */
+        int add(int id, int seconds) {
+            int mask = keys.length - 1;
+            int i = mix(id) & mask;
+            while (keys[i] != 0) {
+                if (keys[i] == id + 1) {
+                    int before = values[i];
+                    values[i] = (int) Math.min(Integer.MAX_VALUE, (long) before + seconds);
+                    return values[i] - before;
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = id + 1;
+            values[i] = seconds;
+            if (++size * 2 > keys.length) grow();
+            return seconds;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] == 0) continue;
+                int i = mix(oldKeys[slot] - 1) & mask;
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = oldKeys[slot];
+                values[i] = oldValues[slot];
+            }
+        }
+
+        private static int mix(int id) {
+            int h = id * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -1,154 +1,1749 @@
 package ghostyplaytime;
 
+import ghostyplaytime.storage.H2PlaytimeStore;
+import ghostyplaytime.storage.HistoryStore;
+import ghostyplaytime.storage.LastSeenStore;
+import ghostyplaytime.storage.NetworkStore;
+import ghostyplaytime.storage.PlaytimeStore;
+import ghostyplaytime.storage.SaveService;
+import ghostyplaytime.storage.YamlPlaytimeStore;
 import org.bukkit.Bukkit;
-import org.bukkit.OfflinePlayer;
-import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntConsumer;
 
 public class PlaytimeManager {
 
-    private final GhostyPlaytime plugin;
-    private final Map<UUID, Long> playtimeMap = new ConcurrentHashMap<>();
-    private File dataFile;
-    private YamlConfiguration dataConfig;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    /** Players merged per lock acquisition by {@link #importPlaytimes}. */
+    private static final int IMPORT_CHUNK = 10_000;
+    /** Ids visited per lock acquisition by {@link #scanTable}. */
+    private static final int SCAN_CHUNK = 10_000;
+    /** Scans per snapshot rebuild before giving up until the next request. */
+    private static final int SNAPSHOT_ATTEMPTS = 3;
+    private static final LeaderboardSnapshot EMPTY_SNAPSHOT =
+            new LeaderboardSnapshot(-1, 0, new long[0], new long[0], new long[0], null);
+
+    /** Leaderboard order: playtime descending, ties by UUID. Matches {@link LeaderboardIndex}. */
+    private static final Comparator<Map.Entry<UUID, Long>> RANKING = (a, b) -> {
+        int c = Long.compare(b.getValue(), a.getValue());
+        return c != 0 ? c : a.getKey().compareTo(b.getKey());
+    };
+
+    private final Plugin plugin;
+    private final LanguageManager language;
+    private final PlaytimeTable table = new PlaytimeTable();
+    private final LeaderboardIndex leaderboard = new LeaderboardIndex(table);
+    // Players whose value changed since the last successful save or journal flush
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> dirtyNames = ConcurrentHashMap.newKeySet();
+    // Session start (System.nanoTime) of every online player. Online players are
+    // kept out of the leaderboard index while their live value keeps growing.
+    private final Map<UUID, Long> sessions = new ConcurrentHashMap<>();
+    // The online players ordered by their session key (see sessionKey), which
+    // orders them by live value at any moment; guarded by the leaderboard lock
+    private final long sessionEpoch = System.nanoTime();
+    private long[] sessionKeys = new long[0];
+    private final LeaderboardIndex online = new LeaderboardIndex(table, id -> sessionKeys[id]);
+    private final Object ioLock = new Object();
+    private final PlaytimeStore store;
+    private final SaveService saveService = new SaveService(this::flush);
+    // Bumped on every change to the ranking; written under the leaderboard lock
+    private volatile long version;
+    // Published by rebuildSnapshot, null until the first one is built
+    private volatile LeaderboardSnapshot snapshot;
+    private final AtomicBoolean snapshotScheduled = new AtomicBoolean();
+    // gui.leaderboard-refresh, read on construction and reload
+    private volatile long snapshotRefreshNanos;
+    // Daily buckets and period rankings; null if history is disabled
+    private final PlaytimeHistory history;
+    private final HistoryStore historyStore;
+    private final ZoneId zone;
+    // Per-server counters merged across the network; null unless network mode is on
+    private NetworkCounters network;
+    private NetworkStore networkStore;
+    // Instrumentation for /playtimeadmin stats and the metrics export
+    private final LatencyHistogram trackingTimes = new LatencyHistogram();
+    private volatile long loadMillis;
+    private volatile long savedEntries;
+    private volatile int lastSaveEntries;
+    private volatile long loadPeakHeapBytes;
+    // Set while storage.background-load is still loading. Sessions that end in the
+    // meantime are kept as nanoseconds in pendingSessions (guarded by the
+    // leaderboard lock), since their stored value may not be loaded yet.
+    private volatile boolean loading;
+    private final CountDownLatch loaded = new CountDownLatch(1);
+    private final Map<UUID, Long> pendingSessions = new HashMap<>();
+    // Players moved out of memory; null unless tiering is enabled. Replaced by the
+    // writer thread, read and modified under the leaderboard lock.
+    private ColdTier cold;
+    private LastSeenStore lastSeenStore;
+    // Epoch day each id was last online, 0 if unknown; guarded by the leaderboard lock
+    private int[] lastSeen = new int[0];
+    private int coldAfterDays;
+    private long tierCheckNanos;
+    private long nextTierCheck;
 
     public PlaytimeManager(GhostyPlaytime plugin) {
+        this(plugin, plugin.getLanguageManager());
+    }
+
+    /**
+     * Creates a manager for any plugin providing the configuration and data
+     * folder, e.g. a stand-in without a server.
+     */
+    public PlaytimeManager(Plugin plugin, LanguageManager language) {
         this.plugin = plugin;
+        this.language = language;
+        this.store = createStore();
+        this.zone = createZone();
+        reload();
+        if (plugin.getConfig().getBoolean("history.enabled", true)) {
+            this.history = new PlaytimeHistory(table, plugin.getConfig().getInt("history.retention-days", 30), today());
+            this.historyStore = new HistoryStore(new File(plugin.getDataFolder(), "history"), plugin.getLogger());
+        } else {
+            this.history = null;
+            this.historyStore = null;
+        }
+        if (plugin.getConfig().getBoolean("network.enabled", false)) {
+            String serverId = createServerId();
+            if (serverId != null) {
+                this.network = new NetworkCounters();
+                this.networkStore = new NetworkStore(
+                        new File(plugin.getConfig().getString("network.directory", "plugins/GhostyPlaytime/network")), serverId);
+            }
+        }
+        if (plugin.getConfig().getBoolean("tiering.enabled", false)) {
+            if (network != null) {
+                plugin.getLogger().warning("Tiering is not supported in network mode! Keeping all players in memory.");
+            } else {
+                File folder = new File(plugin.getDataFolder(), "tiering");
+                this.cold = ColdTier.open(folder, plugin.getLogger());
+                this.lastSeenStore = new LastSeenStore(new File(folder, "last-seen.bin"));
+                // Evicted players must have no daily buckets left, since those refer to ids in memory
+                int retention = history != null ? plugin.getConfig().getInt("history.retention-days", 30) : 0;
+                this.coldAfterDays = Math.max(retention, plugin.getConfig().getInt("tiering.cold-after-days", 60));
+                this.tierCheckNanos = Math.max(1, plugin.getConfig().getInt("tiering.check-interval", 60)) * 60L * NANOS_PER_SECOND;
+                this.nextTierCheck = System.nanoTime();
+            }
+        }
+        if (plugin.getConfig().getBoolean("storage.background-load", false)) {
+            // Online players are tracked right away; their values complete once loading is done
+            loading = true;
+            startSessions();
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                loadData();
+                startAutoSave();
+                startNetworkSync();
+            });
+            return;
+        }
         loadData();
-        startTracking();
+        startSessions();
         startAutoSave();
+        startNetworkSync();
+    }
+
+    private PlaytimeStore createStore() {
+        String type = plugin.getConfig().getString("storage.type", "yaml").toLowerCase();
+        if (type.equals("h2")) {
+            return new H2PlaytimeStore(new File(plugin.getDataFolder(), "playtime"));
+        }
+        if (!type.equals("yaml")) {
+            plugin.getLogger().warning("Unknown storage type '" + type + "'! Falling back to 'yaml'.");
+        }
+        int loadThreads = plugin.getConfig().getInt("storage.load-threads", 0);
+        return new YamlPlaytimeStore(plugin.getDataFolder(), plugin.getLogger(),
+                plugin.getConfig().getBoolean("journal.enabled", true),
+                plugin.getConfig().getLong("journal.compact-size-kb", 4096) * 1024L,
+                loadThreads > 0 ? loadThreads : Runtime.getRuntime().availableProcessors());
+    }
+
+    private ZoneId createZone() {
+        String name = plugin.getConfig().getString("history.timezone", "");
+        if (name == null || name.isEmpty()) return ZoneId.systemDefault();
+        try {
+            return ZoneId.of(name);
+        } catch (DateTimeException e) {
+            plugin.getLogger().warning("Unknown time zone '" + name + "'! Using the server time zone.");
+            return ZoneId.systemDefault();
+        }
+    }
+
+    /**
+     * Returns the configured server id, or one generated on the first start and
+     * kept in the data folder. Returns null if the configured id is invalid.
+     */
+    private String createServerId() {
+        String id = plugin.getConfig().getString("network.server-id", "");
+        if (id != null && !id.isEmpty()) {
+            if (NetworkStore.isValidServerId(id)) return id;
+            plugin.getLogger().severe("Invalid network.server-id '" + id + "' (allowed: letters, digits, _ and -)! Network mode disabled.");
+            return null;
+        }
+        File file = new File(plugin.getDataFolder(), "server-id");
+        try {
+            if (file.isFile()) {
+                id = Files.readString(file.toPath(), StandardCharsets.UTF_8).trim();
+                if (NetworkStore.isValidServerId(id)) return id;
+            }
+            id = UUID.randomUUID().toString();
+            plugin.getDataFolder().mkdirs();
+            Files.writeString(file.toPath(), id, StandardCharsets.UTF_8);
+            return id;
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not store the server id! Network mode disabled. " + e.getMessage());
+            return null;
+        }
+    }
+
+    private long today() {
+        return LocalDate.now(zone).toEpochDay();
     }
 
+    /**
+     * Loads everything from disk. Holds the I/O lock throughout, so saves
+     * requested meanwhile (e.g. by a background load) wait for it.
+     */
     private void loadData() {
-        dataFile = new File(plugin.getDataFolder(), "playtime.yml");
-        if (!dataFile.exists()) {
+        synchronized (ioLock) {
             try {
-                plugin.getDataFolder().mkdirs();
-                dataFile.createNewFile();
+                long start = System.nanoTime();
+                boolean background = loading;
+                List<MemoryPoolMXBean> heap = heapPools();
+                long collections = collectionCount();
+                readData();
+                synchronized (leaderboard) {
+                    finishLoad();
+                }
+                loadMillis = (System.nanoTime() - start) / 1_000_000L;
+                loadPeakHeapBytes = 0;
+                for (MemoryPoolMXBean pool : heap) {
+                    loadPeakHeapBytes += pool.getPeakUsage().getUsed();
+                }
+                plugin.getLogger().info("Loaded playtime data for " + getPlayerCount() + " players"
+                        + (cold != null ? " (" + getColdPlayerCount() + " on disk)" : "") + " in " + loadMillis + " ms ("
+                        + store.getName() + " storage" + (background ? ", in the background" : "")
+                        + ", ~" + (memoryBytes() / 1024 / 1024) + " MB in memory, peak heap "
+                        + (loadPeakHeapBytes / 1024 / 1024) + " MB, " + (collectionCount() - collections) + " GCs).");
+                // The first views should not start out empty
+                rebuildSnapshot();
+            } finally {
+                loading = false;
+                loaded.countDown();
+            }
+        }
+    }
+
+    private void readData() {
+        plugin.getDataFolder().mkdirs();
+        BitSet coldSeen = new BitSet();
+        try {
+            store.load((uuid, seconds) -> {
+                synchronized (leaderboard) {
+                    if (cold != null && keepCold(uuid, seconds, coldSeen)) return;
+                    update(uuid, seconds);
+                }
+            });
+            if (cold != null) {
+                synchronized (leaderboard) {
+                    // Players the store no longer has, e.g. after restoring a backup
+                    for (int position = coldSeen.nextClearBit(0); position < cold.capacity();
+                         position = coldSeen.nextClearBit(position + 1)) {
+                        cold.remove(position);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not load playtime data! " + e.getMessage());
+        }
+        int[] missingNames = {table.size()};
+        try {
+            store.loadNames((uuid, name) -> {
+                synchronized (leaderboard) {
+                    int id = table.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+                    if (id >= 0 && table.name(id) == null) {
+                        table.setName(id, name);
+                        missingNames[0]--;
+                    }
+                }
+            });
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not load player names! " + e.getMessage());
+        }
+        dirty.clear();
+        loadNetwork();
+        loadHistory();
+        loadLastSeen();
+        if (missingNames[0] > 0) {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, this::backfillNames);
+        }
+    }
+
+    /**
+     * Checks a loaded player against the cold tier. Returns true if the tier
+     * holds the player with this value, so it stays on disk. A player with a
+     * different value (changed after it was moved out of memory) is dropped
+     * from the tier and loaded into memory. Callers must hold the leaderboard lock.
+     */
+    private boolean keepCold(UUID uuid, long seconds, BitSet seen) {
+        int position = cold.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        if (position < 0) return false;
+        if (cold.seconds(position) == seconds) {
+            seen.set(position);
+            return true;
+        }
+        cold.remove(position);
+        return false;
+    }
+
+    /**
+     * Stores the sessions that ended during a background load on top of the
+     * now loaded values. Callers must hold the leaderboard lock.
+     */
+    private void finishLoad() {
+        for (Map.Entry<UUID, Long> entry : pendingSessions.entrySet()) {
+            UUID uuid = entry.getKey();
+            long elapsed = entry.getValue() / NANOS_PER_SECOND;
+            if (elapsed <= 0) continue;
+            update(uuid, storedPlaytime(uuid) + elapsed);
+            if (history != null) {
+                history.add(table.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()),
+                        (int) Math.min(Integer.MAX_VALUE, elapsed), today());
+            }
+        }
+        pendingSessions.clear();
+        loading = false;
+    }
+
+    /**
+     * The heap pools with their peak usage reset, to report the peak of the load.
+     */
+    private static List<MemoryPoolMXBean> heapPools() {
+        List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                pool.resetPeakUsage();
+                pools.add(pool);
+            }
+        }
+        return pools;
+    }
+
+    private static long collectionCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * Returns true while a background load is still running. Values read
+     * meanwhile may be incomplete.
+     */
+    public boolean isLoading() {
+        return loading;
+    }
+
+    /**
+     * Blocks until a background load has finished.
+     */
+    private void awaitLoad() {
+        if (!loading) return;
+        try {
+            loaded.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void loadHistory() {
+        if (history == null) return;
+        historyStore.load(history.getFirstDay(), (day, uuid, seconds) -> {
+            synchronized (leaderboard) {
+                int id = table.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+                if (id >= 0) {
+                    history.add(id, seconds, day);
+                    markSeen(id, day);
+                }
+            }
+        });
+        synchronized (leaderboard) {
+            history.drainDirty();
+        }
+    }
+
+    /**
+     * Restores when the players in memory were last online. Players without a
+     * record (and no daily history) count as not seen for a long time.
+     */
+    private void loadLastSeen() {
+        if (lastSeenStore == null) return;
+        try {
+            lastSeenStore.load((msb, lsb, day) -> {
+                synchronized (leaderboard) {
+                    int id = table.find(msb, lsb);
+                    if (id >= 0) markSeen(id, day);
+                }
+            });
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not load last-seen days! " + e.getMessage());
+        }
+    }
+
+    /**
+     * Records that a player was online on the given day. Callers must hold the leaderboard lock.
+     */
+    private void markSeen(int id, long day) {
+        if (cold == null) return;
+        if (id >= lastSeen.length) {
+            lastSeen = Arrays.copyOf(lastSeen, Math.max(id + 1, Math.max(16, lastSeen.length * 2)));
+        }
+        lastSeen[id] = (int) Math.max(lastSeen[id], day);
+    }
+
+    /**
+     * Restores this server's counters, merges the other servers' and sets every
+     * player to its network total. On the first start in network mode the values
+     * just loaded from the store become this server's counters.
+     */
+    private void loadNetwork() {
+        if (network == null) return;
+        if (networkStore.hasOwn()) {
+            synchronized (leaderboard) {
+                network.clearOwn();
+            }
+            try {
+                networkStore.loadOwn((server, uuid, name, up, down) -> {
+                    synchronized (leaderboard) {
+                        network.setOwn(findOrInsert(uuid), up, down);
+                    }
+                });
             } catch (IOException e) {
-                plugin.getLogger().severe("Could not create playtime.yml! " + e.getMessage());
+                // Publishing counters rebuilt from incomplete data would corrupt the network totals
+                plugin.getLogger().severe("Could not load network counters! Network mode disabled. " + e.getMessage());
+                network = null;
+                networkStore = null;
+                return;
+            }
+        } else {
+            plugin.getLogger().info("No network counters for server '" + networkStore.getServerId()
+                    + "' yet, publishing the " + table.size() + " local players as its share.");
+            synchronized (leaderboard) {
+                network.setOwnChanged(true);
+            }
+        }
+        pullNetwork(false);
+        scanTable(id -> {
+            long total = Math.max(0, network.total(id));
+            if (table.value(id) != total) {
+                UUID uuid = table.uuid(id);
+                setStored(id, uuid, total);
+                dirty.add(uuid);
+            }
+        });
+        plugin.getLogger().info("Network mode: server '" + networkStore.getServerId() + "', "
+                + network.getServerCount() + " other servers.");
+    }
+
+    private void startSessions() {
+        // Players already online after a reload
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            startSession(player.getUniqueId());
+            updateName(player.getUniqueId(), player.getName());
+        }
+    }
+
+    /**
+     * Resolves names for players that have none recorded yet, e.g. on the first
+     * start after updating. Runs off the main thread, since the lookups may hit
+     * the server's user cache on disk. Players whose name cannot be resolved are
+     * recorded with an empty name so they are not looked up again.
+     */
+    private void backfillNames() {
+        long start = System.currentTimeMillis();
+        List<UUID> missing = new ArrayList<>();
+        scanTable(id -> {
+            if (table.name(id) == null) missing.add(table.uuid(id));
+        });
+        int resolved = 0;
+        for (UUID uuid : missing) {
+            String name = Bukkit.getOfflinePlayer(uuid).getName();
+            if (name != null) resolved++;
+            synchronized (leaderboard) {
+                int id = table.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+                // A join may have recorded the name in the meantime
+                if (id >= 0 && table.name(id) == null) {
+                    table.setName(id, name != null ? name : "");
+                    dirtyNames.add(uuid);
+                }
+            }
+        }
+        saveAll();
+        plugin.getLogger().info("Backfilled names for " + resolved + " of " + missing.size()
+                + " players in " + (System.currentTimeMillis() - start) + " ms.");
+    }
+
+    /**
+     * Records the current name of a player, e.g. on join.
+     */
+    public void updateName(UUID uuid, String name) {
+        synchronized (leaderboard) {
+            int id = table.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            if (id < 0 || name.equals(table.name(id))) return;
+            table.setName(id, name);
+            dirtyNames.add(uuid);
+        }
+    }
+
+    /**
+     * Starts accounting playtime for a player who joined.
+     */
+    public void startSession(UUID uuid) {
+        synchronized (leaderboard) {
+            if (sessions.containsKey(uuid)) return;
+            int id = findOrPromote(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            if (id >= 0) {
+                leaderboard.remove(id);
+            } else {
+                id = table.insert(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), 0L);
+                dirty.add(uuid);
             }
+            markSeen(id, today());
+            sessions.put(uuid, System.nanoTime());
+            indexOnline(id, uuid);
+            version++;
         }
-        dataConfig = YamlConfiguration.loadConfiguration(dataFile);
-        for (String key : dataConfig.getKeys(false)) {
+    }
+
+    /**
+     * Stops accounting for a player who left and stores the session's playtime.
+     */
+    public void endSession(UUID uuid) {
+        synchronized (leaderboard) {
+            if (!sessions.containsKey(uuid)) return;
+            online.remove(table.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+            if (loading) {
+                pendingSessions.merge(uuid, System.nanoTime() - sessions.remove(uuid), Long::sum);
+                leaderboard.insert(table.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+                version++;
+                return;
+            }
+            materialize(uuid);
+            sessions.remove(uuid);
+            leaderboard.insert(table.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+            version++;
+        }
+    }
+
+    /**
+     * Adds the whole seconds played since the session start to the stored value and
+     * moves the session start forward by the same amount, keeping the remainder.
+     * Callers must hold the leaderboard lock.
+     */
+    private void materialize(UUID uuid) {
+        Long start = sessions.get(uuid);
+        if (start == null) return;
+        long elapsed = (System.nanoTime() - start) / NANOS_PER_SECOND;
+        if (elapsed <= 0) return;
+        // Moving the start first leaves the session key, and so the online order, unchanged
+        sessions.put(uuid, start + elapsed * NANOS_PER_SECOND);
+        update(uuid, storedPlaytime(uuid) + elapsed);
+        int id = table.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        long today = today();
+        markSeen(id, today);
+        if (history != null) {
+            history.add(id, (int) Math.min(Integer.MAX_VALUE, elapsed), today);
+        }
+    }
+
+    private void startNetworkSync() {
+        if (network == null) return;
+        long intervalTicks = Math.max(1, plugin.getConfig().getInt("network.sync-interval", 10)) * 20L;
+        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::syncNetwork, intervalTicks, intervalTicks);
+    }
+
+    /**
+     * Publishes this server's counters and merges the other servers' changes.
+     */
+    private void syncNetwork() {
+        pushNetwork();
+        pullNetwork(true);
+    }
+
+    /**
+     * Writes this server's counters, including the running sessions, if they
+     * changed since the last push.
+     */
+    private void pushNetwork() {
+        NetworkStore target = networkStore;
+        if (target == null) return;
+        synchronized (target) {
+            long[] most;
+            long[] least;
+            String[] names;
+            long[] up;
+            long[] down;
+            int count = 0;
+            synchronized (leaderboard) {
+                for (UUID uuid : sessions.keySet()) {
+                    materialize(uuid);
+                }
+                if (!network.isOwnChanged()) return;
+                int limit = Math.min(network.ownLimit(), table.idLimit());
+                most = new long[limit];
+                least = new long[limit];
+                names = new String[limit];
+                up = new long[limit];
+                down = new long[limit];
+                for (int id = 0; id < limit; id++) {
+                    if (!table.isLive(id) || (network.ownUp(id) == 0 && network.ownDown(id) == 0)) continue;
+                    most[count] = table.mostBits(id);
+                    least[count] = table.leastBits(id);
+                    names[count] = table.name(id);
+                    up[count] = network.ownUp(id);
+                    down[count++] = network.ownDown(id);
+                }
+                network.setOwnChanged(false);
+            }
             try {
-                UUID uuid = UUID.fromString(key);
-                playtimeMap.put(uuid, dataConfig.getLong(key));
-            } catch (IllegalArgumentException ignored) {
-                // Skip invalid keys
+                target.saveOwn(most, least, names, up, down, count);
+            } catch (IOException e) {
+                plugin.getLogger().severe("Could not publish network counters! " + e.getMessage());
+                synchronized (leaderboard) {
+                    network.setOwnChanged(true);
+                }
             }
         }
-        plugin.getLogger().info("Loaded playtime data for " + playtimeMap.size() + " players.");
     }
 
-    private void startTracking() {
-        // Increment playtime for every online player every second
-        Bukkit.getScheduler().runTaskTimer(plugin, () -> {
-            for (Player player : Bukkit.getOnlinePlayers()) {
-                playtimeMap.merge(player.getUniqueId(), 1L, Long::sum);
+    /**
+     * Merges the counters of all servers whose files changed since the last pull.
+     *
+     * @param live true once loaded, so that time gained on other servers also
+     *             counts for today in the period rankings
+     */
+    private void pullNetwork(boolean live) {
+        NetworkStore source = networkStore;
+        if (source == null) return;
+        synchronized (source) {
+            try {
+                source.pull((server, uuid, name, up, down) -> {
+                    synchronized (leaderboard) {
+                        merge(server, uuid, name, up, down, live);
+                    }
+                });
+            } catch (IOException e) {
+                plugin.getLogger().severe("Could not read network counters! " + e.getMessage());
             }
-        }, 20L, 20L);
+        }
+    }
+
+    /**
+     * Merges one player's counters from another server and moves the player to
+     * the new network total. Callers must hold the leaderboard lock.
+     */
+    private void merge(String server, UUID uuid, String name, long up, long down, boolean live) {
+        int id = findOrInsert(uuid);
+        if (!name.isEmpty() && table.name(id) == null) {
+            table.setName(id, name);
+            dirtyNames.add(uuid);
+        }
+        long delta = network.merge(server, id, up, down);
+        if (delta == 0) return;
+        setStored(id, uuid, Math.max(0, network.total(id)));
+        dirty.add(uuid);
+        if (live && delta > 0 && history != null) {
+            history.add(id, (int) Math.min(Integer.MAX_VALUE, delta), today());
+        }
+    }
+
+    /**
+     * Returns the id of a player, adding it with no playtime if unknown.
+     * Callers must hold the leaderboard lock.
+     */
+    private int findOrInsert(UUID uuid) {
+        int id = table.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        if (id >= 0) return id;
+        id = table.insert(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), 0L);
+        if (!sessions.containsKey(uuid)) leaderboard.insert(id);
+        version++;
+        return id;
+    }
+
+    /**
+     * Returns the id of a player in memory, first moving it back from the cold
+     * tier if it is there, or -1 if the player is unknown. Callers must hold the
+     * leaderboard lock.
+     */
+    private int findOrPromote(long msb, long lsb) {
+        int id = table.find(msb, lsb);
+        if (id >= 0 || cold == null) return id;
+        int position = cold.find(msb, lsb);
+        if (position < 0) return -1;
+        id = table.insert(msb, lsb, cold.seconds(position));
+        String name = cold.name(position);
+        if (name != null) table.setName(id, name);
+        cold.remove(position);
+        // Same value and thus same rank, so the ranking version does not change
+        if (!sessions.containsKey(new UUID(msb, lsb))) leaderboard.insert(id);
+        return id;
     }
 
     private void startAutoSave() {
-        int intervalSeconds = plugin.getConfig().getInt("auto-save-interval", 300);
-        long intervalTicks = intervalSeconds * 20L;
+        int intervalSeconds = store instanceof YamlPlaytimeStore && plugin.getConfig().getBoolean("journal.enabled", true)
+                ? plugin.getConfig().getInt("journal.flush-interval", 5)
+                : plugin.getConfig().getInt("auto-save-interval", 300);
+        long intervalTicks = Math.max(1, intervalSeconds) * 20L;
         Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::saveAll, intervalTicks, intervalTicks);
     }
 
-    public void saveAll() {
-        for (Map.Entry<UUID, Long> entry : playtimeMap.entrySet()) {
-            dataConfig.set(entry.getKey().toString(), entry.getValue());
+    /**
+     * Requests a save on the writer thread. Requests made while a save is pending
+     * are merged into it. The future completes once the changes are on disk, or
+     * exceptionally with an {@link UncheckedIOException} if some could not be
+     * written; those stay marked for the next save.
+     */
+    public CompletableFuture<Void> saveAll() {
+        return saveService.requestSave();
+    }
+
+    /**
+     * Persists all players changed since the last save and lets the store run
+     * its housekeeping (e.g. journal compaction). Runs on the writer thread only.
+     * Failures are logged and then thrown as {@link UncheckedIOException}, so the
+     * save futures report them.
+     */
+    private void flush() {
+        synchronized (ioLock) {
+            long start = System.currentTimeMillis();
+            Map<UUID, Long> changes = drainDirty();
+            if (!changes.isEmpty()) {
+                try {
+                    store.save(changes);
+                } catch (IOException e) {
+                    plugin.getLogger().severe("Could not save playtime data! " + e.getMessage());
+                    dirty.addAll(changes.keySet());
+                    throw new UncheckedIOException(e);
+                }
+                savedEntries += changes.size();
+                lastSaveEntries = changes.size();
+                logSave("Saved " + changes.size() + " changed players", start);
+            }
+
+            IOException failure = null;
+            Map<UUID, String> names = drainDirtyNames();
+            if (!names.isEmpty()) {
+                try {
+                    store.saveNames(names);
+                } catch (IOException e) {
+                    plugin.getLogger().severe("Could not save player names! " + e.getMessage());
+                    dirtyNames.addAll(names.keySet());
+                    failure = e;
+                }
+            }
+
+            try {
+                flushHistory();
+            } catch (IOException e) {
+                if (failure == null) failure = e; else failure.addSuppressed(e);
+            }
+
+            start = System.currentTimeMillis();
+            try {
+                if (store.maintain()) {
+                    logSave("Compacted " + store.getName() + " storage", start);
+                }
+            } catch (IOException e) {
+                plugin.getLogger().severe("Could not compact playtime data! " + e.getMessage());
+            }
+
+            if (cold != null && System.nanoTime() - nextTierCheck >= 0) {
+                nextTierCheck = System.nanoTime() + tierCheckNanos;
+                evictInactive();
+                saveLastSeen();
+            }
+            if (failure != null) throw new UncheckedIOException(failure);
+        }
+    }
+
+    /**
+     * Moves the players not online for {@code tiering.cold-after-days} out of
+     * memory into a new generation of the cold index. Runs on the writer thread
+     * only, after the changes were saved: players with unsaved changes stay in
+     * memory, so the store always holds the values of the cold tier.
+     */
+    private void evictInactive() {
+        long start = System.currentTimeMillis();
+        long cutoff = today() - coldAfterDays;
+        ColdTier current;
+        int[] removedBefore;
+        synchronized (leaderboard) {
+            current = cold;
+            removedBefore = current.removedPositions();
         }
+        // Collected in chunks, so players may change meanwhile; every candidate
+        // is checked again below before it leaves memory
+        Candidates found = new Candidates();
+        scanTable(id -> {
+            if (isEvictable(id, cutoff)) found.add(id, table.mostBits(id), table.leastBits(id),
+                    table.value(id), table.name(id));
+        });
+        int count = found.size;
+        // Rewriting also drops the players moved back into memory from the file
+        if (count == 0 && current.removedCount() <= current.capacity() / 10) return;
+        // The cold index needs them in ranking order
+        int[] order = found.rankingOrder();
+        int[] ids = new int[count];
+        long[] most = new long[count];
+        long[] least = new long[count];
+        long[] values = new long[count];
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            int c = order[i];
+            ids[i] = found.ids[c];
+            most[i] = found.most[c];
+            least[i] = found.least[c];
+            values[i] = found.values[c];
+            names[i] = found.names[c];
+        }
+
+        ColdTier next;
         try {
-            dataConfig.save(dataFile);
+            next = current.rewrite(removedBefore, most, least, values, names, count);
         } catch (IOException e) {
-            plugin.getLogger().severe("Could not save playtime.yml! " + e.getMessage());
+            plugin.getLogger().severe("Could not write the cold player index! " + e.getMessage());
+            return;
+        }
+
+        int evicted = 0;
+        synchronized (leaderboard) {
+            // Players moved back into memory while the file was written
+            int[] removedNow = current.removedPositions();
+            for (int position : removedNow) {
+                if (Arrays.binarySearch(removedBefore, position) >= 0) continue;
+                int moved = next.find(current.getIndex().mostBits(position), current.getIndex().leastBits(position));
+                if (moved >= 0) next.remove(moved);
+            }
+            for (int i = 0; i < count; i++) {
+                int id = ids[i];
+                if (isEvictable(id, cutoff) && table.mostBits(id) == most[i] && table.leastBits(id) == least[i]
+                        && table.value(id) == values[i] && Objects.equals(table.name(id), names[i])) {
+                    leaderboard.remove(id);
+                    table.remove(id);
+                    if (id < lastSeen.length) lastSeen[id] = 0;
+                    evicted++;
+                } else {
+                    // Changed or online again meanwhile, so it stays in memory
+                    int moved = next.find(most[i], least[i]);
+                    if (moved >= 0) next.remove(moved);
+                }
+            }
+            cold = next;
+        }
+        current.delete();
+        logSave("Moved " + evicted + " inactive players out of memory, " + next.size() + " on disk", start);
+    }
+
+    /**
+     * Returns true if a player in memory is offline, has no unsaved changes
+     * and was last online before the cutoff day. Callers must hold the leaderboard lock.
+     */
+    private boolean isEvictable(int id, long cutoff) {
+        if (!table.isLive(id) || (id < lastSeen.length && lastSeen[id] > cutoff)) return false;
+        UUID uuid = table.uuid(id);
+        return !sessions.containsKey(uuid) && !dirty.contains(uuid) && !dirtyNames.contains(uuid);
+    }
+
+    /**
+     * Calls the action for every player in memory, holding the leaderboard lock
+     * for {@link #SCAN_CHUNK} ids at a time so that a full pass does not stall
+     * the main thread. The table may change between chunks: players added
+     * behind the current chunk are missed and ids may be reused, so the action
+     * must only rely on what it sees while it runs.
+     */
+    private void scanTable(IntConsumer action) {
+        for (int from = 0; ; from += SCAN_CHUNK) {
+            synchronized (leaderboard) {
+                int limit = table.idLimit();
+                if (from >= limit) return;
+                for (int id = from; id < Math.min(limit, from + SCAN_CHUNK); id++) {
+                    if (table.isLive(id)) action.accept(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Players copied out of the table by a chunked pass, as parallel arrays.
+     */
+    private static final class Candidates {
+
+        int[] ids = new int[64];
+        long[] most = new long[64];
+        long[] least = new long[64];
+        long[] values = new long[64];
+        String[] names = new String[64];
+        int size;
+
+        void add(int id, long msb, long lsb, long value, String name) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                most = Arrays.copyOf(most, capacity);
+                least = Arrays.copyOf(least, capacity);
+                values = Arrays.copyOf(values, capacity);
+                names = Arrays.copyOf(names, capacity);
+            }
+            ids[size] = id;
+            most[size] = msb;
+            least[size] = lsb;
+            values[size] = value;
+            names[size++] = name;
+        }
+
+        /**
+         * Positions of the candidates in leaderboard order, see {@link #RANKING}.
+         */
+        int[] rankingOrder() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> {
+                int c = Long.compare(values[b], values[a]);
+                if (c != 0) return c;
+                c = Long.compare(most[a], most[b]);
+                return c != 0 ? c : Long.compare(least[a], least[b]);
+            });
+            int[] result = new int[size];
+            for (int i = 0; i < size; i++) result[i] = order[i];
+            return result;
+        }
+    }
+
+    /**
+     * Writes when the players in memory were last online. Runs on the writer
+     * thread or after it stopped.
+     */
+    private void saveLastSeen() {
+        Candidates seen = new Candidates();
+        scanTable(id -> {
+            if (id < lastSeen.length && lastSeen[id] != 0) {
+                seen.add(id, table.mostBits(id), table.leastBits(id), lastSeen[id], null);
+            }
+        });
+        int[] days = new int[seen.size];
+        for (int i = 0; i < seen.size; i++) {
+            days[i] = (int) seen.values[i];
+        }
+        try {
+            lastSeenStore.save(seen.most, seen.least, days, seen.size);
+        } catch (IOException e) {
+            plugin.getLogger().severe("Could not save last-seen days! " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the days whose buckets changed and deletes days out of retention.
+     * Runs on the writer thread only.
+     */
+    private void flushHistory() throws IOException {
+        if (history == null) return;
+        List<PlaytimeHistory.DayBuckets> days;
+        long firstDay;
+        synchronized (leaderboard) {
+            history.roll(today());
+            days = history.drainDirty();
+            firstDay = history.getFirstDay();
+        }
+        IOException failure = null;
+        for (PlaytimeHistory.DayBuckets day : days) {
+            try {
+                historyStore.saveDay(day.day(), day.most(), day.least(), day.seconds(), day.count());
+            } catch (IOException e) {
+                plugin.getLogger().severe("Could not save playtime history! " + e.getMessage());
+                synchronized (leaderboard) {
+                    history.markDirty(day.day());
+                }
+                if (failure == null) failure = e; else failure.addSuppressed(e);
+            }
+        }
+        historyStore.deleteBefore(firstDay);
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Saves pending changes and closes the store. Called when the plugin is disabled.
+     */
+    public void shutdown() {
+        awaitLoad();
+        synchronized (leaderboard) {
+            for (UUID uuid : new ArrayList<>(sessions.keySet())) {
+                endSession(uuid);
+            }
+        }
+        pushNetwork();
+        saveService.close();
+        if (cold != null) {
+            synchronized (ioLock) {
+                saveLastSeen();
+            }
+        }
+        store.close();
+    }
+
+    /**
+     * Streams playtime.yml (including its journal) into the active store. Existing
+     * values are only ever raised, so running the import twice is harmless.
+     * Returns the number of players read from the file.
+     */
+    public int importYaml() throws IOException {
+        awaitLoad();
+        YamlPlaytimeStore source = new YamlPlaytimeStore(plugin.getDataFolder(), plugin.getLogger(), false, 0);
+        int[] count = {0};
+        source.read((uuid, seconds) -> {
+            synchronized (leaderboard) {
+                if (seconds > getPlaytime(uuid)) {
+                    update(uuid, seconds);
+                }
+            }
+            count[0]++;
+        });
+        saveAndWait();
+        return count[0];
+    }
+
+    /**
+     * Merges imported playtimes in one batch, raising players whose stored
+     * playtime is lower and adding unknown ones, then saves. The lock is
+     * released between chunks so the main thread is not stalled by a large
+     * import. Returns the number of players that changed. Runs off the main
+     * thread; names of new players are resolved afterwards. Throws if the
+     * merged values could not be saved; they stay in memory and are retried
+     * by the next save.
+     */
+    public int importPlaytimes(Map<UUID, Long> playtimes) throws IOException {
+        awaitLoad();
+        int changed = 0;
+        boolean added = false;
+        Iterator<Map.Entry<UUID, Long>> entries = playtimes.entrySet().iterator();
+        while (entries.hasNext()) {
+            synchronized (leaderboard) {
+                for (int i = 0; i < IMPORT_CHUNK && entries.hasNext(); i++) {
+                    Map.Entry<UUID, Long> entry = entries.next();
+                    UUID uuid = entry.getKey();
+                    long seconds = entry.getValue();
+                    if (seconds <= getPlaytime(uuid)) continue;
+                    added |= table.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()) < 0;
+                    update(uuid, seconds);
+                    changed++;
+                }
+            }
+        }
+        if (added) backfillNames();
+        saveAndWait();
+        return changed;
+    }
+
+    /**
+     * Saves and waits for it, rethrowing a failed save as the underlying IOException.
+     */
+    private void saveAndWait() throws IOException {
+        try {
+            saveAll().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException io) throw io.getCause();
+            throw new IOException("Save failed", e.getCause());
+        }
+    }
+
+    public PlaytimeStore getStore() {
+        return store;
+    }
+
+    public SaveService getSaveService() {
+        return saveService;
+    }
+
+    /**
+     * Durations of the passes that account the running sessions before each save.
+     */
+    public LatencyHistogram getTrackingTimes() {
+        return trackingTimes;
+    }
+
+    /**
+     * Milliseconds the initial load took, including history and network counters.
+     */
+    public long getLoadMillis() {
+        return loadMillis;
+    }
+
+    /**
+     * Peak heap usage during the initial load, summed over the heap pools.
+     */
+    public long getLoadPeakHeapBytes() {
+        return loadPeakHeapBytes;
+    }
+
+    /**
+     * Total number of player values written by saves.
+     */
+    public long getSavedEntries() {
+        return savedEntries;
+    }
+
+    public int getLastSaveEntries() {
+        return lastSaveEntries;
+    }
+
+    /**
+     * Returns a copy of the players whose session is being accounted, i.e. the
+     * online players. Safe to call from any thread.
+     */
+    public Set<UUID> getSessionPlayers() {
+        return Set.copyOf(sessions.keySet());
+    }
+
+    /**
+     * Number of players whose session is being accounted.
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Stores the running sessions, takes the current values of all dirty players
+     * and clears the dirty set.
+     */
+    private Map<UUID, Long> drainDirty() {
+        synchronized (leaderboard) {
+            long start = System.nanoTime();
+            for (UUID uuid : sessions.keySet()) {
+                materialize(uuid);
+            }
+            trackingTimes.record(System.nanoTime() - start);
+            Map<UUID, Long> changes = new HashMap<>(dirty.size() * 2);
+            for (UUID uuid : dirty) {
+                changes.put(uuid, storedPlaytime(uuid));
+            }
+            dirty.clear();
+            return changes;
         }
     }
 
+    private Map<UUID, String> drainDirtyNames() {
+        synchronized (leaderboard) {
+            Map<UUID, String> names = new HashMap<>(dirtyNames.size() * 2);
+            for (UUID uuid : dirtyNames) {
+                int id = table.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+                if (id >= 0 && table.name(id) != null) names.put(uuid, table.name(id));
+            }
+            dirtyNames.clear();
+            return names;
+        }
+    }
+
+    private void logSave(String message, long start) {
+        if (!plugin.getConfig().getBoolean("log-saves", true)) return;
+        plugin.getLogger().info(message + " (" + playerCount() + " total, "
+                + dirty.size() + " dirty) in " + (System.currentTimeMillis() - start) + " ms.");
+    }
+
+    /**
+     * Returns the live playtime: the stored total plus the running session, if any.
+     */
     public long getPlaytime(UUID uuid) {
-        return playtimeMap.getOrDefault(uuid, 0L);
+        if (!sessions.containsKey(uuid)) {
+            return storedPlaytime(uuid);
+        }
+        synchronized (leaderboard) {
+            return storedPlaytime(uuid) + sessionSeconds(uuid);
+        }
+    }
+
+    /**
+     * Returns the live playtime of several players, read under a single lock
+     * so the values are consistent with each other. Unknown players map to 0.
+     */
+    public Map<UUID, Long> getPlaytimes(Collection<UUID> players) {
+        Map<UUID, Long> result = new HashMap<>(players.size() * 2);
+        synchronized (leaderboard) {
+            for (UUID uuid : players) {
+                result.put(uuid, storedPlaytime(uuid) + sessionSeconds(uuid));
+            }
+        }
+        return result;
+    }
+
+    private long storedPlaytime(UUID uuid) {
+        long seconds = table.get(uuid);
+        if (seconds != PlaytimeTable.ABSENT) return seconds;
+        if (cold == null) return 0L;
+        synchronized (leaderboard) {
+            // Read again under the lock; the player may just have moved between the tiers
+            seconds = table.get(uuid);
+            if (seconds != PlaytimeTable.ABSENT) return seconds;
+            int position = cold.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            return position < 0 ? 0L : cold.seconds(position);
+        }
+    }
+
+    private long sessionSeconds(UUID uuid) {
+        Long start = sessions.get(uuid);
+        return start == null ? 0L : (System.nanoTime() - start) / NANOS_PER_SECOND;
     }
 
     public void setPlaytime(UUID uuid, long seconds) {
-        playtimeMap.put(uuid, Math.max(0, seconds));
+        awaitLoad();
+        synchronized (leaderboard) {
+            materialize(uuid);
+            update(uuid, Math.max(0, seconds));
+        }
     }
 
     public void addPlaytime(UUID uuid, long seconds) {
-        playtimeMap.merge(uuid, seconds, (a, b) -> Math.max(0, a + b));
+        awaitLoad();
+        synchronized (leaderboard) {
+            materialize(uuid);
+            update(uuid, Math.max(0, storedPlaytime(uuid) + seconds));
+        }
+    }
+
+    /**
+     * Writes a stored value to the table, moves the player in the leaderboard
+     * (unless it is online and therefore not indexed) and marks it dirty for
+     * the next save. In network mode the change is counted as this server's
+     * share. Callers must hold the leaderboard lock.
+     */
+    private void update(UUID uuid, long seconds) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        int id = findOrPromote(msb, lsb);
+        if (id < 0) {
+            id = table.insert(msb, lsb, seconds);
+            if (!sessions.containsKey(uuid)) leaderboard.insert(id);
+            version++;
+            if (network != null) network.recordLocal(id, seconds);
+        } else if (table.value(id) != seconds) {
+            // Relative to the network total, which may be below zero after concurrent decreases
+            if (network != null) network.recordLocal(id, seconds - network.total(id));
+            setStored(id, uuid, seconds);
+        }
+        dirty.add(uuid);
+    }
+
+    /**
+     * Changes the stored value of a known player and moves it in the leaderboard
+     * (unless it is online and therefore not indexed). Callers must hold the leaderboard lock.
+     */
+    private void setStored(int id, UUID uuid, long seconds) {
+        boolean indexed = !sessions.containsKey(uuid);
+        if (indexed) leaderboard.remove(id);
+        table.set(id, seconds);
+        if (indexed) {
+            leaderboard.insert(id);
+        } else if (sessionKey(id, uuid) != sessionKeys[id]) {
+            online.remove(id);
+            indexOnline(id, uuid);
+        }
+        version++;
+    }
+
+    /**
+     * Stored value in nanoseconds minus the session start (relative to the
+     * manager's creation). The live value of an online player is
+     * {@code floor((key + now - sessionEpoch) / 1e9)}, so at any moment a larger
+     * key means at least as much live playtime. Callers must hold the leaderboard lock.
+     */
+    private long sessionKey(int id, UUID uuid) {
+        return table.value(id) * NANOS_PER_SECOND - (sessions.get(uuid) - sessionEpoch);
+    }
+
+    /**
+     * Adds an online player to the online order. Callers must hold the leaderboard lock.
+     */
+    private void indexOnline(int id, UUID uuid) {
+        if (id >= sessionKeys.length) {
+            sessionKeys = Arrays.copyOf(sessionKeys, Math.max(id + 1, Math.max(16, sessionKeys.length * 2)));
+        }
+        sessionKeys[id] = sessionKey(id, uuid);
+        online.insert(id);
+    }
+
+    /**
+     * Number of online players, other than the entry's own, whose live value
+     * ranks ahead of the entry. Two lookups in the online order, plus a look at
+     * the players whose live value equals the entry's, which the order cannot
+     * tell apart by UUID. {@code now} must be the instant the entry's own live
+     * value was taken at. Callers must hold the leaderboard lock.
+     */
+    private int onlineBefore(Map.Entry<UUID, Long> entry, long now) {
+        if (online.size() == 0) return 0;
+        long elapsed = now - sessionEpoch;
+        // Keys from here on have a live value above the entry's, the band below it an equal one
+        long above = (entry.getValue() + 1) * NANOS_PER_SECOND - elapsed;
+        int ahead = online.countBefore(above - 1, Long.MIN_VALUE, Long.MIN_VALUE);
+        int equal = online.countBefore(above - NANOS_PER_SECOND - 1, Long.MIN_VALUE, Long.MIN_VALUE) - ahead;
+        if (equal == 0) return ahead;
+        UUID uuid = entry.getKey();
+        for (Map.Entry<UUID, Long> tie : online.range(ahead, equal)) {
+            if (tie.getKey().compareTo(uuid) < 0) ahead++;
+        }
+        return ahead;
+    }
+
+    /**
+     * Returns the online players with their live values, in leaderboard order.
+     * Callers must hold the leaderboard lock.
+     */
+    private List<Map.Entry<UUID, Long>> liveSessions() {
+        List<Map.Entry<UUID, Long>> live = new ArrayList<>(sessions.size());
+        for (UUID uuid : sessions.keySet()) {
+            live.add(Map.entry(uuid, storedPlaytime(uuid) + sessionSeconds(uuid)));
+        }
+        live.sort(RANKING);
+        return live;
+    }
+
+    /**
+     * Merges the players in memory with the cold tier and returns the slice
+     * starting at the 0-based position {@code from}. Cold players are read from
+     * the mapped index without moving them into memory.
+     * Callers must hold the leaderboard lock.
+     */
+    private List<Map.Entry<UUID, Long>> range(int from, int count) {
+        List<Map.Entry<UUID, Long>> live = sessions.isEmpty() ? Collections.emptyList() : liveSessions();
+        if (cold == null || cold.size() == 0) return hotRange(from, count, live);
+
+        // First cold position at or behind the slice start. The overall rank of the
+        // players in the index grows with their position, so it can be bisected.
+        int low = 0;
+        int high = cold.capacity();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cold.liveBefore(mid) + hotBefore(cold.entry(mid), live) < from) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        int coldSkip = cold.liveBefore(low);
+        List<Map.Entry<UUID, Long>> hot = hotRange(from - coldSkip, count, live);
+
+        List<Map.Entry<UUID, Long>> result = new ArrayList<>(Math.min(count, hot.size() + cold.size() - coldSkip));
+        int i = 0;
+        int position = low;
+        while (result.size() < count) {
+            while (position < cold.capacity() && cold.isRemoved(position)) position++;
+            Map.Entry<UUID, Long> next = position < cold.capacity() ? cold.entry(position) : null;
+            if (next == null && i >= hot.size()) break;
+            if (next == null || (i < hot.size() && RANKING.compare(hot.get(i), next) < 0)) {
+                result.add(hot.get(i++));
+            } else {
+                result.add(next);
+                position++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Merges the indexed (offline) players with the live sessions, given in
+     * leaderboard order, and returns the slice starting at the 0-based position
+     * {@code from}. Callers must hold the leaderboard lock.
+     */
+    private List<Map.Entry<UUID, Long>> hotRange(int from, int count, List<Map.Entry<UUID, Long>> live) {
+        if (live.isEmpty()) return leaderboard.range(from, count);
+
+        // Number of online players ranked before the slice start
+        int skip = 0;
+        while (skip < live.size() && offlineBefore(live.get(skip)) + skip < from) {
+            skip++;
+        }
+        List<Map.Entry<UUID, Long>> offline = leaderboard.range(from - skip, count);
+
+        List<Map.Entry<UUID, Long>> result = new ArrayList<>(Math.min(count, offline.size() + live.size() - skip));
+        int i = 0;
+        int j = skip;
+        while (result.size() < count && (i < offline.size() || j < live.size())) {
+            if (j >= live.size() || (i < offline.size() && RANKING.compare(offline.get(i), live.get(j)) < 0)) {
+                result.add(offline.get(i++));
+            } else {
+                result.add(live.get(j++));
+            }
+        }
+        return result;
+    }
+
+    private int offlineBefore(Map.Entry<UUID, Long> entry) {
+        UUID uuid = entry.getKey();
+        return leaderboard.countBefore(entry.getValue(), uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
     }
 
     /**
-     * Returns top N players sorted by playtime descending.
+     * Number of players in memory, offline or in the given live sessions, ranking
+     * ahead of an entry that is not online itself.
+     */
+    private int hotBefore(Map.Entry<UUID, Long> entry, List<Map.Entry<UUID, Long>> live) {
+        int position = Collections.binarySearch(live, entry, RANKING);
+        return offlineBefore(entry) + (position >= 0 ? position : -position - 1);
+    }
+
+    private int coldBefore(Map.Entry<UUID, Long> entry) {
+        if (cold == null) return 0;
+        UUID uuid = entry.getKey();
+        return cold.countBefore(entry.getValue(), uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * Returns top N players sorted by playtime descending, from the shared snapshot.
      */
     public List<Map.Entry<UUID, Long>> getTopPlayers(int limit) {
-        return playtimeMap.entrySet().stream()
-                .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
-                .limit(limit)
-                .collect(Collectors.toList());
+        return getSnapshot().page(0, limit);
+    }
+
+    /**
+     * The top of the leaderboard together with one player's playtime and rank
+     * (-1 if not found), all read from the same state.
+     */
+    public record Standing(List<Map.Entry<UUID, Long>> top, long playtime, int rank) {
+    }
+
+    /**
+     * Returns the top {@code limit} players and a player's own standing from the
+     * shared snapshot, or, if the player is not in it yet, computed live under one lock.
+     */
+    public Standing getStanding(UUID uuid, int limit) {
+        LeaderboardSnapshot current = getSnapshot();
+        int rank = current.rank(uuid);
+        if (rank > 0) return new Standing(current.page(0, limit), current.playtime(uuid), rank);
+        synchronized (leaderboard) {
+            return new Standing(range(0, limit), storedPlaytime(uuid) + sessionSeconds(uuid), rankOf(uuid));
+        }
+    }
+
+    /**
+     * Returns true if daily history, and with it the period rankings, is enabled.
+     */
+    public boolean isHistoryEnabled() {
+        return history != null;
+    }
+
+    /**
+     * Returns up to {@code count} players of a period ranking starting at the 0-based
+     * rank offset {@code from}. Period values include running sessions up to the last save.
+     * {@link Period#ALL} is served from the shared snapshot.
+     */
+    public List<Map.Entry<UUID, Long>> getPage(Period period, int from, int count) {
+        if (period == Period.ALL) return getSnapshot().page(from, count);
+        if (history == null) return Collections.emptyList();
+        synchronized (leaderboard) {
+            history.roll(today());
+            return history.range(period, from, count);
+        }
+    }
+
+    /**
+     * Returns the number of players in a period ranking.
+     */
+    public int getPlayerCount(Period period) {
+        if (period == Period.ALL) return getPlayerCount();
+        if (history == null) return 0;
+        synchronized (leaderboard) {
+            history.roll(today());
+            return history.size(period);
+        }
+    }
+
+    /**
+     * Returns the seconds a player played in the period.
+     */
+    public long getPlaytime(UUID uuid, Period period) {
+        if (period == Period.ALL) return getPlaytime(uuid);
+        if (history == null) return 0;
+        synchronized (leaderboard) {
+            history.roll(today());
+            int id = table.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            return id < 0 ? 0 : history.value(period, id);
+        }
+    }
+
+    /**
+     * Reads the settings that may change without a restart from the config.
+     */
+    public void reload() {
+        snapshotRefreshNanos = plugin.getConfig().getLong("gui.leaderboard-refresh", 5) * NANOS_PER_SECOND;
+    }
+
+    /**
+     * Returns the published leaderboard snapshot without waiting for anything.
+     * Once it is older than {@code gui.leaderboard-refresh} seconds and the
+     * ranking changed or players are online (whose values keep growing without a
+     * change being recorded), a new one is built on an async task; callers keep
+     * getting the previous one until it is published.
+     */
+    public LeaderboardSnapshot getSnapshot() {
+        LeaderboardSnapshot current = snapshot;
+        if (current == null) {
+            scheduleSnapshot();
+            return EMPTY_SNAPSHOT;
+        }
+        if (System.nanoTime() - current.getCreatedNanos() >= snapshotRefreshNanos
+                && (current.getVersion() != version || !sessions.isEmpty())) {
+            scheduleSnapshot();
+        }
+        return current;
+    }
+
+    private void scheduleSnapshot() {
+        if (!snapshotScheduled.compareAndSet(false, true)) return;
+        try {
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                try {
+                    rebuildSnapshot();
+                } finally {
+                    snapshotScheduled.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            // The plugin is being disabled; the current snapshot stays
+            snapshotScheduled.set(false);
+        }
+    }
+
+    /**
+     * Builds and publishes a new snapshot. Never called with the leaderboard lock held.
+     */
+    private void rebuildSnapshot() {
+        for (int attempt = 0; attempt < SNAPSHOT_ATTEMPTS; attempt++) {
+            LeaderboardSnapshot next = takeSnapshot();
+            if (next != null) {
+                snapshot = next;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Copies the players in memory, with the live values of online players, in
+     * chunks through {@link #scanTable} and sorts them without the lock, then
+     * adds a copy of the cold tier. Each player is read at one moment, not all
+     * at the same one, which a leaderboard shown for a few seconds does not
+     * need. Returns null if a player moved between memory and the cold tier
+     * during the scan, since it might then be missing or counted twice.
+     */
+    private LeaderboardSnapshot takeSnapshot() {
+        long now = System.nanoTime();
+        long startVersion;
+        ColdTier startTier;
+        int startRemoved;
+        synchronized (leaderboard) {
+            startVersion = version;
+            startTier = cold;
+            startRemoved = cold != null ? cold.removedCount() : 0;
+        }
+        Candidates players = new Candidates();
+        scanTable(id -> {
+            long msb = table.mostBits(id);
+            long lsb = table.leastBits(id);
+            long value = table.value(id);
+            if (!sessions.isEmpty()) value += sessionSeconds(new UUID(msb, lsb));
+            players.add(id, msb, lsb, value, null);
+        });
+        ColdTier tier;
+        synchronized (leaderboard) {
+            if (cold != startTier || (cold != null && cold.removedCount() != startRemoved)) return null;
+            tier = cold != null ? cold.copy() : null;
+        }
+
+        int[] order = players.rankingOrder();
+        long[] most = new long[players.size];
+        long[] least = new long[players.size];
+        long[] values = new long[players.size];
+        for (int i = 0; i < players.size; i++) {
+            most[i] = players.most[order[i]];
+            least[i] = players.least[order[i]];
+            values[i] = players.values[order[i]];
+        }
+        return new LeaderboardSnapshot(startVersion, now, most, least, values, tier);
+    }
+
+    /**
+     * Returns up to {@code count} players starting at the 0-based rank offset {@code from}.
+     */
+    public List<Map.Entry<UUID, Long>> getPage(int from, int count) {
+        synchronized (leaderboard) {
+            return range(from, count);
+        }
     }
 
     /**
      * Returns all players sorted by playtime descending.
      */
     public List<Map.Entry<UUID, Long>> getAllSorted() {
-        return playtimeMap.entrySet().stream()
-                .sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
-                .collect(Collectors.toList());
+        synchronized (leaderboard) {
+            return range(0, playerCount());
+        }
+    }
+
+    /**
+     * Returns the number of players with recorded playtime.
+     */
+    public int getPlayerCount() {
+        synchronized (leaderboard) {
+            return playerCount();
+        }
+    }
+
+    /**
+     * Returns the number of players kept on disk only, 0 unless tiering is enabled.
+     */
+    public int getColdPlayerCount() {
+        synchronized (leaderboard) {
+            return cold != null ? cold.size() : 0;
+        }
+    }
+
+    private int playerCount() {
+        return table.size() + (cold != null ? cold.size() : 0);
     }
 
     /**
      * Returns the rank of a player (1-based). Returns -1 if not found.
      */
     public int getRank(UUID uuid) {
-        List<Map.Entry<UUID, Long>> sorted = getAllSorted();
-        for (int i = 0; i < sorted.size(); i++) {
-            if (sorted.get(i).getKey().equals(uuid)) {
-                return i + 1;
+        synchronized (leaderboard) {
+            return rankOf(uuid);
+        }
+    }
+
+    /**
+     * Returns the ranks (1-based, -1 if not found) of several players from one
+     * consistent state.
+     */
+    public Map<UUID, Integer> getRanks(Collection<UUID> players) {
+        Map<UUID, Integer> ranks = new HashMap<>(players.size() * 2);
+        synchronized (leaderboard) {
+            for (UUID uuid : players) {
+                ranks.put(uuid, rankOf(uuid));
             }
         }
-        return -1;
+        return ranks;
     }
 
     /**
-     * Formats seconds into a human-readable string using language file.
+     * Rank of a player from the counts ahead of it in the cold tier, among the
+     * offline players in memory and among the online players, each O(log n).
+     * Callers must hold the leaderboard lock.
      */
-    public String formatTime(long totalSeconds) {
-        LanguageManager lang = plugin.getLanguageManager();
-        long days = totalSeconds / 86400;
-        long hours = (totalSeconds % 86400) / 3600;
-        long minutes = (totalSeconds % 3600) / 60;
-        long seconds = totalSeconds % 60;
+    private int rankOf(UUID uuid) {
+        int id = table.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+        long now = System.nanoTime();
+        Map.Entry<UUID, Long> self;
+        int before;
+        if (id >= 0) {
+            Long start = sessions.get(uuid);
+            long session = start != null ? (now - start) / NANOS_PER_SECOND : 0;
+            self = Map.entry(uuid, table.value(id) + session);
+            before = coldBefore(self);
+        } else {
+            int position = cold != null ? cold.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()) : -1;
+            if (position < 0) return -1;
+            self = cold.entry(position);
+            before = cold.liveBefore(position);
+        }
+        return before + offlineBefore(self) + onlineBefore(self, now) + 1;
+    }
 
-        String daySuffix = lang.getRaw("time-format.day-suffix");
-        String hourSuffix = lang.getRaw("time-format.hour-suffix");
-        String minuteSuffix = lang.getRaw("time-format.minute-suffix");
-        String secondSuffix = lang.getRaw("time-format.second-suffix");
+    /**
+     * Returns the rank (1-based) of a player in a period ranking, or -1 if the
+     * player has no time in it.
+     */
+    public int getRank(UUID uuid, Period period) {
+        if (period == Period.ALL) return getRank(uuid);
+        if (history == null) return -1;
+        synchronized (leaderboard) {
+            history.roll(today());
+            int id = table.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            return id < 0 ? -1 : history.rankOf(period, id);
+        }
+    }
 
-        StringBuilder sb = new StringBuilder();
-        if (days > 0) sb.append(days).append(daySuffix).append(" ");
-        if (hours > 0 || days > 0) sb.append(hours).append(hourSuffix).append(" ");
-        if (minutes > 0 || hours > 0 || days > 0) sb.append(minutes).append(minuteSuffix).append(" ");
-        sb.append(seconds).append(secondSuffix);
+    /**
+     * Approximate heap used by the playtime table and leaderboard index, in bytes.
+     * The cold tier only counts its removed positions, its index is mapped.
+     */
+    public long memoryBytes() {
+        synchronized (leaderboard) {
+            return table.memoryBytes() + leaderboard.memoryBytes() + (history != null ? history.memoryBytes() : 0)
+                    + (network != null ? network.memoryBytes() : 0)
+                    + (cold != null ? cold.memoryBytes() + 4L * lastSeen.length : 0);
+        }
+    }
 
-        return sb.toString().trim();
+    /**
+     * Formats seconds into a human-readable string using the language's time format.
+     */
+    public String formatTime(long totalSeconds) {
+        return language.getDurationFormatter().format(totalSeconds);
     }
 
     /**
-     * Gets the display name of a player (online or offline).
+     * Gets the display name of a player (online or offline) from the name index.
      */
     public String getPlayerName(UUID uuid) {
+        String name = findName(uuid);
+        return name != null ? name : "Unknown";
+    }
+
+    /**
+     * Returns the current or last known name of a player, or null if none is known.
+     */
+    public String findName(UUID uuid) {
         Player online = Bukkit.getPlayer(uuid);
         if (online != null) return online.getName();
-        OfflinePlayer offline = Bukkit.getOfflinePlayer(uuid);
-        String name = offline.getName();
-        return name != null ? name : "Unknown";
+        synchronized (leaderboard) {
+            int id = table.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+            String name = null;
+            if (id >= 0) {
+                name = table.name(id);
+            } else if (cold != null) {
+                int position = cold.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+                if (position >= 0) name = cold.name(position);
+            }
+            return name != null && !name.isEmpty() ? name : null;
+        }
+    }
+
+    /**
+     * Looks up a known player by name (case-insensitive). Returns null if unknown.
+     */
+    public UUID findPlayer(String name) {
+        synchronized (leaderboard) {
+            int id = table.findByName(name);
+            if (id >= 0) return table.uuid(id);
+            int position = cold != null ? cold.findByName(name) : -1;
+            return position < 0 ? null : cold.entry(position).getKey();
+        }
     }
 }
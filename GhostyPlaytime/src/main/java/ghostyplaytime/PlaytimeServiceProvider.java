@@ -0,0 +1,104 @@
+package ghostyplaytime;
+
+import ghostyplaytime.api.PlaytimeService;
+import ghostyplaytime.placeholders.PlaceholderResolver;
+import org.bukkit.Bukkit;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * The {@link PlaytimeService} registered for other plugins, backed by the {@link PlaytimeManager}.
+ * Results are copies or immutable, so callers cannot change the plugin's state.
+ */
+public class PlaytimeServiceProvider implements PlaytimeService {
+
+    private final PlaytimeManager manager;
+    private final PlaceholderResolver placeholders;
+    private final Executor async;
+
+    public PlaytimeServiceProvider(GhostyPlaytime plugin) {
+        this.manager = plugin.getPlaytimeManager();
+        this.placeholders = plugin.getPlaceholderResolver();
+        this.async = task -> Bukkit.getScheduler().runTaskAsynchronously(plugin, task);
+    }
+
+    @Override
+    public long getPlaytime(UUID player) {
+        return manager.getPlaytime(player);
+    }
+
+    @Override
+    public long getPlaytime(UUID player, Period period) {
+        return manager.getPlaytime(player, period);
+    }
+
+    @Override
+    public Map<UUID, Long> getPlaytimes(Collection<UUID> players) {
+        return manager.getPlaytimes(players);
+    }
+
+    @Override
+    public int getRank(UUID player) {
+        return manager.getRank(player);
+    }
+
+    @Override
+    public int getRank(UUID player, Period period) {
+        return manager.getRank(player, period);
+    }
+
+    @Override
+    public Map<UUID, Integer> getRanks(Collection<UUID> players) {
+        return manager.getRanks(players);
+    }
+
+    @Override
+    public List<Map.Entry<UUID, Long>> getTop(int limit) {
+        // Only the published snapshot is read; a stale one is rebuilt in the background
+        return manager.getSnapshot().page(0, limit);
+    }
+
+    @Override
+    public List<Map.Entry<UUID, Long>> getTop(Period period, int limit) {
+        return List.copyOf(manager.getPage(period, 0, limit));
+    }
+
+    @Override
+    public int getPlayerCount() {
+        return manager.getPlayerCount();
+    }
+
+    @Override
+    public String getPlayerName(UUID player) {
+        return manager.findName(player);
+    }
+
+    @Override
+    public boolean isHistoryEnabled() {
+        return manager.isHistoryEnabled();
+    }
+
+    @Override
+    public String resolvePlaceholder(UUID player, String identifier) {
+        return placeholders.resolve(player, identifier);
+    }
+
+    @Override
+    public CompletableFuture<List<Map.Entry<UUID, Long>>> getPageAsync(Period period, int from, int count) {
+        return CompletableFuture.supplyAsync(() -> List.copyOf(manager.getPage(period, from, count)), async);
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Long>> getPlaytimesAsync(Collection<UUID> players) {
+        List<UUID> copy = List.copyOf(players);
+        return CompletableFuture.supplyAsync(() -> manager.getPlaytimes(copy), async);
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, Integer>> getRanksAsync(Collection<UUID> players) {
+        List<UUID> copy = List.copyOf(players);
+        return CompletableFuture.supplyAsync(() -> manager.getRanks(copy), async);
+    }
+}
@@ -0,0 +1,312 @@
+package ghostyplaytime;
+
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Primitive UUID to playtime map.
+ *
+ * Players get a dense id; their UUID halves and playtime live in parallel
+ * {@code long[]} columns indexed by that id, and an open-addressed {@code int[]}
+ * hash (linear probing) maps UUIDs to ids. A second such hash maps names
+ * (case-insensitive) to ids. Apart from the last known player name, no
+ * per-player objects are allocated.
+ * Ids stay stable until the player is removed, so other structures such as
+ * {@link LeaderboardIndex} can refer to them.
+ *
+ * Single key lookups through {@link #get(UUID)} are lock-free (optimistic reads);
+ * every other method must be called by one writer at a time.
+ */
+public class PlaytimeTable {
+
+    public static final long ABSENT = -1L;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final StampedLock lock = new StampedLock();
+
+    // Hash slots hold id + 1, 0 marks an empty slot
+    private int[] slots = new int[MIN_CAPACITY * 2];
+    private long[] most = new long[MIN_CAPACITY];
+    private long[] least = new long[MIN_CAPACITY];
+    private long[] values = new long[MIN_CAPACITY];
+    private String[] names = new String[MIN_CAPACITY];
+    // Ids with a name, by name hash; slots hold id + 1 like the UUID hash
+    private int[] nameSlots = new int[MIN_CAPACITY * 2];
+    private int named;
+    private int[] freeIds = new int[0];
+    private int freeCount;
+    private int nextId;
+    private int size;
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Upper bound (exclusive) of all ids handed out so far.
+     */
+    public int idLimit() {
+        return nextId;
+    }
+
+    /**
+     * Returns the playtime of a player or {@link #ABSENT}. Safe to call from any thread.
+     */
+    public long get(UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                int id = find(msb, lsb);
+                long value = id < 0 ? ABSENT : values[id];
+                if (lock.validate(stamp)) return value;
+            } catch (RuntimeException ignored) {
+                // Torn read during a resize, retry under the lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            int id = find(msb, lsb);
+            return id < 0 ? ABSENT : values[id];
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the id of a player or -1.
+     */
+    public int find(long msb, long lsb) {
+        int[] slots = this.slots;
+        int mask = slots.length - 1;
+        for (int i = hash(msb, lsb) & mask; ; i = (i + 1) & mask) {
+            int slot = slots[i];
+            if (slot == 0) return -1;
+            int id = slot - 1;
+            if (most[id] == msb && least[id] == lsb) return id;
+        }
+    }
+
+    /**
+     * Adds a player that is not in the table yet and returns its id.
+     */
+    public int insert(long msb, long lsb, long value) {
+        long stamp = lock.writeLock();
+        try {
+            int id;
+            if (freeCount > 0) {
+                id = freeIds[--freeCount];
+            } else {
+                id = nextId++;
+                if (id == most.length) {
+                    int capacity = most.length * 2;
+                    most = Arrays.copyOf(most, capacity);
+                    least = Arrays.copyOf(least, capacity);
+                    values = Arrays.copyOf(values, capacity);
+                    names = Arrays.copyOf(names, capacity);
+                }
+            }
+            most[id] = msb;
+            least[id] = lsb;
+            values[id] = value;
+            size++;
+            if (size * 2 > slots.length) {
+                rehash(slots.length * 2);
+            } else {
+                place(slots, id);
+            }
+            return id;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void set(int id, long value) {
+        long stamp = lock.writeLock();
+        try {
+            values[id] = value;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public void setName(int id, String name) {
+        long stamp = lock.writeLock();
+        try {
+            if (names[id] != null) unplaceName(id);
+            names[id] = name;
+            if (name != null) {
+                named++;
+                if (named * 2 > nameSlots.length) {
+                    rehashNames(nameSlots.length * 2);
+                } else {
+                    placeName(nameSlots, id);
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes a player. Its id may be handed out again by a later insert.
+     */
+    public void remove(int id) {
+        long stamp = lock.writeLock();
+        try {
+            int mask = slots.length - 1;
+            int i = hash(most[id], least[id]) & mask;
+            while (slots[i] != id + 1) {
+                i = (i + 1) & mask;
+            }
+            // Backward-shift deletion keeps probe chains intact without tombstones
+            int gap = i;
+            for (int j = (gap + 1) & mask; slots[j] != 0; j = (j + 1) & mask) {
+                int other = slots[j] - 1;
+                int home = hash(most[other], least[other]) & mask;
+                if (((j - home) & mask) >= ((j - gap) & mask)) {
+                    slots[gap] = slots[j];
+                    gap = j;
+                }
+            }
+            slots[gap] = 0;
+            if (names[id] != null) unplaceName(id);
+            values[id] = ABSENT;
+            names[id] = null;
+            if (freeCount == freeIds.length) {
+                freeIds = Arrays.copyOf(freeIds, Math.max(MIN_CAPACITY, freeCount * 2));
+            }
+            freeIds[freeCount++] = id;
+            size--;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns true if the id currently belongs to a player.
+     */
+    public boolean isLive(int id) {
+        return id >= 0 && id < nextId && values[id] != ABSENT;
+    }
+
+    public long value(int id) {
+        return values[id];
+    }
+
+    public long mostBits(int id) {
+        return most[id];
+    }
+
+    public long leastBits(int id) {
+        return least[id];
+    }
+
+    /**
+     * Returns the last known name, or null if none was recorded yet.
+     */
+    public String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * Finds a player by name (case-insensitive), or returns -1.
+     */
+    public int findByName(String name) {
+        int mask = nameSlots.length - 1;
+        for (int i = nameHash(name) & mask; nameSlots[i] != 0; i = (i + 1) & mask) {
+            int id = nameSlots[i] - 1;
+            if (name.equalsIgnoreCase(names[id])) return id;
+        }
+        return -1;
+    }
+
+    public UUID uuid(int id) {
+        return new UUID(most[id], least[id]);
+    }
+
+    /**
+     * Approximate heap footprint of the table arrays in bytes.
+     */
+    public long memoryBytes() {
+        return 4L * (slots.length + nameSlots.length) + 8L * (most.length + least.length + values.length)
+                + 4L * (names.length + freeIds.length);
+    }
+
+    private void rehash(int capacity) {
+        int[] fresh = new int[capacity];
+        for (int id = 0; id < nextId; id++) {
+            if (values[id] != ABSENT) place(fresh, id);
+        }
+        slots = fresh;
+    }
+
+    private void place(int[] slots, int id) {
+        int mask = slots.length - 1;
+        int i = hash(most[id], least[id]) & mask;
+        while (slots[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        slots[i] = id + 1;
+    }
+
+    private void rehashNames(int capacity) {
+        int[] fresh = new int[capacity];
+        for (int id = 0; id < nextId; id++) {
+            if (names[id] != null) placeName(fresh, id);
+        }
+        nameSlots = fresh;
+    }
+
+    private void placeName(int[] slots, int id) {
+        int mask = slots.length - 1;
+        int i = nameHash(names[id]) & mask;
+        while (slots[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        slots[i] = id + 1;
+    }
+
+    private void unplaceName(int id) {
+        int mask = nameSlots.length - 1;
+        int i = nameHash(names[id]) & mask;
+        while (nameSlots[i] != id + 1) {
+            i = (i + 1) & mask;
+        }
+        int gap = i;
+        for (int j = (gap + 1) & mask; nameSlots[j] != 0; j = (j + 1) & mask) {
+            int home = nameHash(names[nameSlots[j] - 1]) & mask;
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                nameSlots[gap] = nameSlots[j];
+                gap = j;
+            }
+        }
+        nameSlots[gap] = 0;
+        named--;
+    }
+
+    /**
+     * Hash of a name that is equal for names differing only in case, folding
+     * every character the way {@link String#equalsIgnoreCase} compares it.
+     */
+    private static int nameHash(String name) {
+        int h = 0;
+        for (int i = 0; i < name.length(); i++) {
+            h = 31 * h + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        return h ^ h >>> 13;
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = msb ^ Long.rotateLeft(lsb, 32);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+}
@@ -0,0 +1,113 @@
+package ghostyplaytime.api;
+
+import ghostyplaytime.Period;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Playtime queries for other plugins, registered with Bukkit's services manager:
+ * <pre>{@code
+ * PlaytimeService playtime = Bukkit.getServicesManager().load(PlaytimeService.class);
+ * }</pre>
+ *
+ * All methods may be called from any thread. Values are served from memory and
+ * include running sessions; the batch methods read all requested players from
+ * one consistent state. {@link #getTop(int)} and the total ranking of
+ * {@link #getTop(Period, int)} never block: they read the last published
+ * snapshot, which a background task rebuilds at most every
+ * {@code gui.leaderboard-refresh} seconds. The other synchronous methods take
+ * the plugin's leaderboard lock and may briefly wait for a writer; the
+ * {@code Async} variants keep that wait off the calling thread. Playtimes are
+ * in seconds, ranks are 1-based.
+ */
+public interface PlaytimeService {
+
+    /**
+     * Returns the total playtime of a player, 0 if unknown.
+     */
+    long getPlaytime(UUID player);
+
+    /**
+     * Returns the playtime of a player within a period. Period values include
+     * running sessions up to the last save.
+     */
+    long getPlaytime(UUID player, Period period);
+
+    /**
+     * Returns the total playtime of several players, 0 for unknown ones.
+     */
+    Map<UUID, Long> getPlaytimes(Collection<UUID> players);
+
+    /**
+     * Returns the rank of a player, -1 if unknown.
+     */
+    int getRank(UUID player);
+
+    /**
+     * Returns the rank of a player in a period ranking, -1 if it has no time in it.
+     */
+    int getRank(UUID player, Period period);
+
+    /**
+     * Returns the ranks of several players, -1 for unknown ones.
+     */
+    Map<UUID, Integer> getRanks(Collection<UUID> players);
+
+    /**
+     * Returns up to {@code limit} players with the most playtime, best first,
+     * from the last published snapshot without blocking. Empty until the first
+     * snapshot is built.
+     */
+    List<Map.Entry<UUID, Long>> getTop(int limit);
+
+    /**
+     * Returns up to {@code limit} players with the most playtime in a period, best first.
+     * {@link Period#ALL} is served like {@link #getTop(int)}; the other periods
+     * are read under the leaderboard lock.
+     */
+    List<Map.Entry<UUID, Long>> getTop(Period period, int limit);
+
+    /**
+     * Returns the number of players with recorded playtime.
+     */
+    int getPlayerCount();
+
+    /**
+     * Returns the last known name of a player, or null if none is known.
+     */
+    String getPlayerName(UUID player);
+
+    /**
+     * Returns true if daily history, and with it the period rankings, is enabled.
+     */
+    boolean isHistoryEnabled();
+
+    /**
+     * Resolves a GhostyPlaytime placeholder without PlaceholderAPI, e.g.
+     * {@code "playtime"}, {@code "rank_week"} or {@code "top_1_name"}, from
+     * values precomputed for all online players. Returns null if the
+     * identifier is unknown.
+     */
+    String resolvePlaceholder(UUID player, String identifier);
+
+    /**
+     * Returns a page of a ranking starting at the 0-based position {@code from},
+     * computed off the calling thread. Use this for deep pages, which cost more
+     * than the top of the ranking.
+     */
+    CompletableFuture<List<Map.Entry<UUID, Long>>> getPageAsync(Period period, int from, int count);
+
+    /**
+     * {@link #getPlaytimes(Collection)} computed off the calling thread.
+     */
+    CompletableFuture<Map<UUID, Long>> getPlaytimesAsync(Collection<UUID> players);
+
+    /**
+     * {@link #getRanks(Collection)} computed off the calling thread.
+     */
+    CompletableFuture<Map<UUID, Integer>> getRanksAsync(Collection<UUID> players);
+}
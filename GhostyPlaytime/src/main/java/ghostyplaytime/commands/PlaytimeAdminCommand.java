@@ -2,22 +2,36 @@ package ghostyplaytime.commands;
 
 import ghostyplaytime.GhostyPlaytime;
 import ghostyplaytime.LanguageManager;
-import ghostyplaytime.gui.AdminGUI;
-import ghostyplaytime.listeners.GUIListener;
+import ghostyplaytime.LatencyHistogram;
+import ghostyplaytime.PlaytimeManager;
+import ghostyplaytime.gui.GUIHolder;
+import ghostyplaytime.gui.GUIRenderer;
+import ghostyplaytime.gui.HeadCache;
+import ghostyplaytime.storage.SaveService;
+import ghostyplaytime.storage.VanillaStatsImporter;
+import ghostyplaytime.storage.YamlPlaytimeStore;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
+import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.util.StringUtil;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class PlaytimeAdminCommand implements CommandExecutor, TabCompleter {
 
+    private static final long IMPORT_PROGRESS_TICKS = 5 * 20L;
+
     private final GhostyPlaytime plugin;
+    private final AtomicBoolean importRunning = new AtomicBoolean();
 
     public PlaytimeAdminCommand(GhostyPlaytime plugin) {
         this.plugin = plugin;
@@ -32,12 +46,17 @@ public class PlaytimeAdminCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
+        if (plugin.getPlaytimeManager().isLoading()) {
+            sender.sendMessage(lang.getMessage("data-loading"));
+            return true;
+        }
+
         if (args.length == 0) {
             if (!(sender instanceof Player player)) {
                 sender.sendMessage(lang.getMessage("player-only"));
                 return true;
             }
-            getAdminGUI().openList(player, 0);
+            plugin.getAdminGUI().openList(player, 0);
             return true;
         }
 
@@ -49,6 +68,41 @@ public class PlaytimeAdminCommand implements CommandExecutor, TabCompleter {
             return true;
         }
 
+        if (sub.equals("migrate")) {
+            PlaytimeManager pm = plugin.getPlaytimeManager();
+            if (pm.getStore() instanceof YamlPlaytimeStore) {
+                sender.sendMessage(lang.getMessage("admin.migrate-not-needed"));
+                return true;
+            }
+            if (!new File(plugin.getDataFolder(), "playtime.yml").exists()) {
+                sender.sendMessage(lang.getMessage("admin.migrate-no-data"));
+                return true;
+            }
+            sender.sendMessage(lang.getMessage("admin.migrate-started", "%store%", pm.getStore().getName()));
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                String result;
+                try {
+                    int count = pm.importYaml();
+                    result = lang.getMessage("admin.migrate-done", "%count%", String.valueOf(count));
+                } catch (IOException e) {
+                    result = lang.getMessage("admin.migrate-failed", "%error%", String.valueOf(e.getMessage()));
+                }
+                String message = result;
+                Bukkit.getScheduler().runTask(plugin, () -> sender.sendMessage(message));
+            });
+            return true;
+        }
+
+        if (sub.equals("importstats")) {
+            importStats(sender, args.length > 1 ? args[1] : null);
+            return true;
+        }
+
+        if (sub.equals("stats")) {
+            sendStats(sender);
+            return true;
+        }
+
         if (sub.equals("set")) {
             if (args.length < 3) {
                 sender.sendMessage(lang.getMessage("invalid-usage",
@@ -112,14 +166,155 @@ public class PlaytimeAdminCommand implements CommandExecutor, TabCompleter {
             sender.sendMessage(lang.getMessage("player-not-found", "%player%", args[0]));
             return true;
         }
-        getAdminGUI().openDetail(admin, targetUUID);
+        plugin.getAdminGUI().openDetail(admin, targetUUID);
         return true;
     }
 
+    /**
+     * Imports the playtime of the vanilla statistics in the stats folder of a
+     * world (the main world by default). Parsing runs off the main thread;
+     * progress is reported every few seconds until the batch is applied.
+     */
+    private void importStats(CommandSender sender, String worldName) {
+        LanguageManager lang = plugin.getLanguageManager();
+        World world = worldName != null ? Bukkit.getWorld(worldName) : Bukkit.getWorlds().get(0);
+        if (world == null) {
+            sender.sendMessage(lang.getMessage("admin.import-no-world", "%world%", worldName));
+            return;
+        }
+        File folder = new File(world.getWorldFolder(), "stats");
+        if (!folder.isDirectory()) {
+            sender.sendMessage(lang.getMessage("admin.import-no-stats", "%world%", world.getName()));
+            return;
+        }
+        if (!importRunning.compareAndSet(false, true)) {
+            sender.sendMessage(lang.getMessage("admin.import-running"));
+            return;
+        }
+        sender.sendMessage(lang.getMessage("admin.import-started", "%world%", world.getName()));
+
+        VanillaStatsImporter importer = new VanillaStatsImporter(folder, Runtime.getRuntime().availableProcessors());
+        long start = System.nanoTime();
+        BukkitTask progress = Bukkit.getScheduler().runTaskTimer(plugin, () -> {
+            int total = importer.getTotal();
+            if (total < 0) return;
+            int done = importer.getDone();
+            sender.sendMessage(lang.getMessage("admin.import-progress",
+                    "%done%", String.valueOf(done),
+                    "%total%", String.valueOf(total),
+                    "%rate%", String.valueOf(perSecond(done, start))));
+        }, IMPORT_PROGRESS_TICKS, IMPORT_PROGRESS_TICKS);
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            String result = null;
+            try {
+                Map<UUID, Long> playtimes = importer.run();
+                long parsed = System.nanoTime();
+                int changed = plugin.getPlaytimeManager().importPlaytimes(playtimes);
+                result = lang.getMessage("admin.import-done",
+                        "%files%", String.valueOf(importer.getDone()),
+                        "%players%", String.valueOf(playtimes.size()),
+                        "%changed%", String.valueOf(changed),
+                        "%failed%", String.valueOf(importer.getFailed()),
+                        "%seconds%", millis((parsed - start) / 1e9),
+                        "%rate%", String.valueOf(perSecond(importer.getDone(), start, parsed)),
+                        "%mb%", millis(importer.getBytesRead() / 1048576.0),
+                        "%apply%", String.valueOf((System.nanoTime() - parsed) / 1_000_000L));
+            } catch (IOException e) {
+                result = lang.getMessage("admin.import-failed", "%error%", String.valueOf(e.getMessage()));
+            } catch (RuntimeException e) {
+                plugin.getLogger().severe("Could not import vanilla statistics: " + e);
+                result = lang.getMessage("admin.import-failed", "%error%", String.valueOf(e));
+            } finally {
+                importRunning.set(false);
+                // Also after errors, or the progress messages would keep coming until a restart
+                String message = result;
+                Bukkit.getScheduler().runTask(plugin, () -> {
+                    progress.cancel();
+                    if (message != null) sender.sendMessage(message);
+                });
+            }
+        });
+    }
+
+    private static long perSecond(int count, long start) {
+        return perSecond(count, start, System.nanoTime());
+    }
+
+    private static long perSecond(int count, long start, long end) {
+        return end == start ? 0 : Math.round(count * 1e9 / (end - start));
+    }
+
+    private void sendStats(CommandSender sender) {
+        LanguageManager lang = plugin.getLanguageManager();
+        GUIRenderer renderer = plugin.getGUIRenderer();
+        sender.sendMessage(lang.getMessage("admin.stats-header"));
+        for (GUIHolder.Type type : GUIHolder.Type.values()) {
+            LatencyHistogram open = renderer.getOpenTimes(type);
+            LatencyHistogram build = renderer.getBuildTimes(type);
+            sender.sendMessage(lang.get("admin.stats-view",
+                    "%view%", type.name().toLowerCase(),
+                    "%count%", String.valueOf(open.getCount()),
+                    "%main_p50%", millis(open.getPercentileMillis(50)),
+                    "%main_p99%", millis(open.getPercentileMillis(99)),
+                    "%main_max%", millis(open.getMaxMillis()),
+                    "%async_p50%", millis(build.getPercentileMillis(50)),
+                    "%async_p99%", millis(build.getPercentileMillis(99))));
+            LatencyHistogram clicks = plugin.getGUIListener().getClickTimes(type);
+            sender.sendMessage(lang.get("admin.stats-clicks",
+                    "%view%", type.name().toLowerCase(),
+                    "%count%", String.valueOf(clicks.getCount()),
+                    "%p50%", millis(clicks.getPercentileMillis(50)),
+                    "%p99%", millis(clicks.getPercentileMillis(99)),
+                    "%max%", millis(clicks.getMaxMillis())));
+        }
+        sender.sendMessage(lang.get("admin.stats-sessions",
+                "%open%", String.valueOf(plugin.getGUISessions().count())));
+        HeadCache heads = plugin.getHeadCache();
+        sender.sendMessage(lang.get("admin.stats-heads",
+                "%size%", String.valueOf(heads.size()),
+                "%hits%", String.valueOf(heads.getHits()),
+                "%misses%", String.valueOf(heads.getMisses()),
+                "%rate%", String.valueOf(hitRate(heads.getHits(), heads.getMisses()))));
+        PlaytimeManager manager = plugin.getPlaytimeManager();
+        SaveService saves = manager.getSaveService();
+        sender.sendMessage(lang.get("admin.stats-saves",
+                "%count%", String.valueOf(saves.getFlushCount()),
+                "%last%", String.valueOf(saves.getLastFlushMillis()),
+                "%p99%", millis(saves.getFlushTimes().getPercentileMillis(99)),
+                "%max%", String.valueOf(saves.getMaxFlushMillis()),
+                "%entries%", String.valueOf(manager.getLastSaveEntries()),
+                "%total_entries%", String.valueOf(manager.getSavedEntries()),
+                "%kb%", String.valueOf(manager.getStore().getBytesWritten() / 1024)));
+        LatencyHistogram tracking = manager.getTrackingTimes();
+        sender.sendMessage(lang.get("admin.stats-tracking",
+                "%sessions%", String.valueOf(manager.getSessionCount()),
+                "%count%", String.valueOf(tracking.getCount()),
+                "%p50%", millis(tracking.getPercentileMillis(50)),
+                "%p99%", millis(tracking.getPercentileMillis(99)),
+                "%max%", millis(tracking.getMaxMillis())));
+        sender.sendMessage(lang.get("admin.stats-load",
+                "%players%", String.valueOf(manager.getPlayerCount()),
+                "%cold%", String.valueOf(manager.getColdPlayerCount()),
+                "%millis%", String.valueOf(manager.getLoadMillis()),
+                "%peak%", String.valueOf(manager.getLoadPeakHeapBytes() / 1024 / 1024)));
+    }
+
+    private static long hitRate(long hits, long misses) {
+        return hits + misses == 0 ? 0 : Math.round(100.0 * hits / (hits + misses));
+    }
+
+    private static String millis(double value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
     private UUID resolvePlayer(String name) {
         Player online = Bukkit.getPlayerExact(name);
         if (online != null) return online.getUniqueId();
+        UUID known = plugin.getPlaytimeManager().findPlayer(name);
+        if (known != null) return known;
 
+        // Players whose name was never recorded, e.g. from before names were stored
         @SuppressWarnings("deprecation")
         OfflinePlayer offline = Bukkit.getOfflinePlayer(name);
         if (offline.hasPlayedBefore() || offline.isOnline()) {
@@ -128,17 +323,6 @@ public class PlaytimeAdminCommand implements CommandExecutor, TabCompleter {
         return null;
     }
 
-    private AdminGUI getAdminGUI() {
-        for (org.bukkit.event.HandlerList list : org.bukkit.event.HandlerList.getHandlerLists()) {
-            for (org.bukkit.plugin.RegisteredListener rl : list.getRegisteredListeners()) {
-                if (rl.getListener() instanceof GUIListener guiListener) {
-                    return guiListener.getAdminGUI();
-                }
-            }
-        }
-        return new AdminGUI(plugin);
-    }
-
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
         if (!sender.hasPermission("ghostyplaytime.admin")) return Collections.emptyList();
@@ -146,9 +330,14 @@ public class PlaytimeAdminCommand implements CommandExecutor, TabCompleter {
         List<String> completions = new ArrayList<>();
 
         if (args.length == 1) {
-            List<String> options = new ArrayList<>(Arrays.asList("reload", "set", "add"));
+            List<String> options = new ArrayList<>(Arrays.asList("reload", "set", "add", "migrate", "importstats", "stats"));
             Bukkit.getOnlinePlayers().forEach(p -> options.add(p.getName()));
             StringUtil.copyPartialMatches(args[0], options, completions);
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("importstats")) {
+            Bukkit.getWorlds().stream()
+                    .map(World::getName)
+                    .filter(name -> StringUtil.startsWithIgnoreCase(name, args[1]))
+                    .forEach(completions::add);
         } else if (args.length == 2 && (args[0].equalsIgnoreCase("set") || args[0].equalsIgnoreCase("add"))) {
             Bukkit.getOnlinePlayers().stream()
                     .map(Player::getName)
@@ -1,19 +1,25 @@
 package ghostyplaytime.commands;
 
 import ghostyplaytime.GhostyPlaytime;
-import ghostyplaytime.gui.PlayerGUI;
-import ghostyplaytime.listeners.GUIListener;
+import ghostyplaytime.LanguageManager;
+import ghostyplaytime.Period;
+import ghostyplaytime.PlaytimeManager;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.TabCompleter;
 import org.bukkit.entity.Player;
+import org.bukkit.util.StringUtil;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 public class PlaytimeCommand implements CommandExecutor, TabCompleter {
 
+    private static final int TOP_SIZE = 10;
+
     private final GhostyPlaytime plugin;
 
     public PlaytimeCommand(GhostyPlaytime plugin) {
@@ -22,31 +28,65 @@ public class PlaytimeCommand implements CommandExecutor, TabCompleter {
 
     @Override
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
-        if (!(sender instanceof Player player)) {
-            sender.sendMessage(plugin.getLanguageManager().getMessage("player-only"));
+        if (!sender.hasPermission("ghostyplaytime.playtime")) {
+            sender.sendMessage(plugin.getLanguageManager().getMessage("no-permission"));
+            return true;
+        }
+
+        if (plugin.getPlaytimeManager().isLoading()) {
+            sender.sendMessage(plugin.getLanguageManager().getMessage("data-loading"));
             return true;
         }
 
-        if (!player.hasPermission("ghostyplaytime.playtime")) {
-            player.sendMessage(plugin.getLanguageManager().getMessage("no-permission"));
+        if (args.length > 0 && args[0].equalsIgnoreCase("top")) {
+            sendTop(sender, args.length > 1 ? args[1] : "all");
             return true;
         }
 
-        for (org.bukkit.event.HandlerList list : org.bukkit.event.HandlerList.getHandlerLists()) {
-            for (org.bukkit.plugin.RegisteredListener rl : list.getRegisteredListeners()) {
-                if (rl.getListener() instanceof GUIListener guiListener) {
-                    guiListener.getPlayerGUI().open(player);
-                    return true;
-                }
-            }
+        if (!(sender instanceof Player player)) {
+            sender.sendMessage(plugin.getLanguageManager().getMessage("player-only"));
+            return true;
         }
 
-        new PlayerGUI(plugin).open(player);
+        plugin.getPlayerGUI().open(player);
         return true;
     }
 
+    private void sendTop(CommandSender sender, String periodName) {
+        LanguageManager lang = plugin.getLanguageManager();
+        PlaytimeManager pm = plugin.getPlaytimeManager();
+        Period period = Period.parse(periodName);
+        if (period == null) {
+            sender.sendMessage(lang.getMessage("invalid-usage", "%usage%", "/playtime top [all|day|week|month]"));
+            return;
+        }
+        if (period != Period.ALL && !pm.isHistoryEnabled()) {
+            sender.sendMessage(lang.getMessage("top.disabled"));
+            return;
+        }
+        List<Map.Entry<UUID, Long>> top = pm.getPage(period, 0, TOP_SIZE);
+        if (top.isEmpty()) {
+            sender.sendMessage(lang.getMessage("top.empty"));
+            return;
+        }
+        sender.sendMessage(lang.getMessage("top.header", "%period%", lang.get("period." + period.name().toLowerCase())));
+        for (int i = 0; i < top.size(); i++) {
+            Map.Entry<UUID, Long> entry = top.get(i);
+            sender.sendMessage(lang.get("top.entry",
+                    "%rank%", String.valueOf(i + 1),
+                    "%player%", pm.getPlayerName(entry.getKey()),
+                    "%time%", pm.formatTime(entry.getValue())));
+        }
+    }
+
     @Override
     public List<String> onTabComplete(CommandSender sender, Command command, String alias, String[] args) {
-        return Collections.emptyList();
+        List<String> completions = new ArrayList<>();
+        if (args.length == 1) {
+            StringUtil.copyPartialMatches(args[0], List.of("top"), completions);
+        } else if (args.length == 2 && args[0].equalsIgnoreCase("top")) {
+            StringUtil.copyPartialMatches(args[1], List.of("all", "day", "week", "month"), completions);
+        }
+        return completions;
     }
 }
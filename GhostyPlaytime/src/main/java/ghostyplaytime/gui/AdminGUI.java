@@ -2,11 +2,12 @@ package ghostyplaytime.gui;
 
 import ghostyplaytime.GhostyPlaytime;
 import ghostyplaytime.LanguageManager;
+import ghostyplaytime.LeaderboardSnapshot;
+import ghostyplaytime.Period;
 import ghostyplaytime.PlaytimeManager;
 import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 
 import java.util.*;
@@ -17,6 +18,7 @@ import java.util.*;
  * Rows 0-4 (slots 0-44): Player heads (up to 45 per page), sorted by playtime desc.
  * Row 5 (nav bar):
  *   Slot 45: Previous page
+ *   Slot 47: Period toggle (all time / day / week / month)
  *   Slot 48: Close
  *   Slot 49: Page info
  *   Slot 53: Next page
@@ -25,13 +27,11 @@ public class AdminGUI {
 
     private static final int CONTENT_SLOTS = 45;
     private static final int SLOT_PREV = 45;
+    private static final int SLOT_PERIOD = 47;
     private static final int SLOT_CLOSE = 48;
     private static final int SLOT_PAGE_INFO = 49;
     private static final int SLOT_NEXT = 53;
 
-    private final Map<UUID, Integer> adminPages = new HashMap<>();
-    private final Map<UUID, UUID> adminDetailTarget = new HashMap<>();
-
     private final GhostyPlaytime plugin;
 
     public AdminGUI(GhostyPlaytime plugin) {
@@ -39,82 +39,127 @@ public class AdminGUI {
     }
 
     public void openList(Player admin, int page) {
+        openList(admin, page, Period.ALL);
+    }
+
+    public void openList(Player admin, int page, Period period) {
+        plugin.getGUIRenderer().render(admin, () -> buildList(page, period));
+    }
+
+    /**
+     * Returns the number of list pages for the period ranking.
+     */
+    public int getTotalPages(Period period) {
+        return pageCount(plugin.getPlaytimeManager().getPlayerCount(period));
+    }
+
+    private static int pageCount(int players) {
+        return Math.max(1, (int) Math.ceil(players / (double) CONTENT_SLOTS));
+    }
+
+    /**
+     * Builds a list page; runs off the main thread.
+     */
+    GUIRenderer.View buildList(int page, Period period) {
         LanguageManager lang = plugin.getLanguageManager();
         PlaytimeManager pm = plugin.getPlaytimeManager();
 
-        List<Map.Entry<UUID, Long>> allPlayers = pm.getAllSorted();
-        int totalPages = Math.max(1, (int) Math.ceil(allPlayers.size() / (double) CONTENT_SLOTS));
+        // The all-time list is read from one snapshot so count and page agree
+        LeaderboardSnapshot snapshot = period == Period.ALL ? pm.getSnapshot() : null;
+        int totalPlayers = snapshot != null ? snapshot.size() : pm.getPlayerCount(period);
+        int totalPages = pageCount(totalPlayers);
         page = Math.max(0, Math.min(page, totalPages - 1));
-        adminPages.put(admin.getUniqueId(), page);
-        adminDetailTarget.remove(admin.getUniqueId());
 
         String title = lang.get("gui.admin.all-title");
-        Inventory inv = Bukkit.createInventory(null, 54, title);
+        GUIHolder holder = new GUIHolder(GUIHolder.Type.ADMIN_LIST, page, null, period);
+        ItemStack[] contents = new ItemStack[54];
 
         // Nav bar glass panes
         Material border = getBorderMaterial();
         ItemStack borderItem = PlayerGUI.createItem(border, " ", new ArrayList<>());
         for (int i = 45; i < 54; i++) {
-            inv.setItem(i, borderItem);
+            contents[i] = borderItem;
         }
 
         // Content
         int startIndex = page * CONTENT_SLOTS;
-        for (int i = 0; i < CONTENT_SLOTS; i++) {
+        List<Map.Entry<UUID, Long>> pagePlayers = snapshot != null
+                ? snapshot.page(startIndex, CONTENT_SLOTS)
+                : pm.getPage(period, startIndex, CONTENT_SLOTS);
+        for (int i = 0; i < pagePlayers.size(); i++) {
             int playerIndex = startIndex + i;
-            if (playerIndex >= allPlayers.size()) break;
 
-            Map.Entry<UUID, Long> entry = allPlayers.get(playerIndex);
+            Map.Entry<UUID, Long> entry = pagePlayers.get(i);
             String name = pm.getPlayerName(entry.getKey());
             String time = pm.formatTime(entry.getValue());
             int rank = playerIndex + 1;
 
-            ItemStack head = PlayerGUI.createSkull(entry.getKey(),
+            ItemStack head = plugin.getHeadCache().createSkull(entry.getKey(),
                     lang.get("gui.admin.player-head.name", "%player%", name),
                     lang.getLore("gui.admin.player-head.lore",
                             "%player%", name,
                             "%time%", time,
                             "%rank%", String.valueOf(rank)));
-            inv.setItem(i, head);
+            contents[i] = head;
         }
 
         String pageStr = String.valueOf(page + 1);
         String maxPageStr = String.valueOf(totalPages);
-        String totalStr = String.valueOf(allPlayers.size());
+        String totalStr = String.valueOf(totalPlayers);
 
         // Prev
         if (page > 0) {
-            inv.setItem(SLOT_PREV, PlayerGUI.createItem(Material.ARROW,
+            contents[SLOT_PREV] = PlayerGUI.createItem(Material.ARROW,
                     lang.get("gui.admin.prev-page.name", "%page%", String.valueOf(page), "%max_page%", maxPageStr),
-                    lang.getLore("gui.admin.prev-page.lore", "%page%", String.valueOf(page), "%max_page%", maxPageStr)));
+                    lang.getLore("gui.admin.prev-page.lore", "%page%", String.valueOf(page), "%max_page%", maxPageStr));
         }
 
         // Page info
-        inv.setItem(SLOT_PAGE_INFO, PlayerGUI.createItem(Material.PAPER,
+        contents[SLOT_PAGE_INFO] = PlayerGUI.createItem(Material.PAPER,
                 lang.get("gui.admin.page-info.name", "%page%", pageStr, "%max_page%", maxPageStr),
-                lang.getLore("gui.admin.page-info.lore", "%page%", pageStr, "%max_page%", maxPageStr, "%total%", totalStr)));
+                lang.getLore("gui.admin.page-info.lore", "%page%", pageStr, "%max_page%", maxPageStr, "%total%", totalStr));
+
+        // Period
+        if (pm.isHistoryEnabled()) {
+            String periodName = lang.get("period." + period.name().toLowerCase());
+            contents[SLOT_PERIOD] = PlayerGUI.createItem(Material.CLOCK,
+                    lang.get("gui.admin.period.name", "%period%", periodName),
+                    lang.getLore("gui.admin.period.lore", "%period%", periodName));
+        }
 
         // Next
         if (page < totalPages - 1) {
-            inv.setItem(SLOT_NEXT, PlayerGUI.createItem(Material.ARROW,
+            contents[SLOT_NEXT] = PlayerGUI.createItem(Material.ARROW,
                     lang.get("gui.admin.next-page.name", "%page%", String.valueOf(page + 2), "%max_page%", maxPageStr),
-                    lang.getLore("gui.admin.next-page.lore", "%page%", String.valueOf(page + 2), "%max_page%", maxPageStr)));
+                    lang.getLore("gui.admin.next-page.lore", "%page%", String.valueOf(page + 2), "%max_page%", maxPageStr));
         }
 
         // Close
-        inv.setItem(SLOT_CLOSE, PlayerGUI.createItem(Material.BARRIER,
+        contents[SLOT_CLOSE] = PlayerGUI.createItem(Material.BARRIER,
                 lang.get("gui.admin.close.name"),
-                lang.getLore("gui.admin.close.lore")));
+                lang.getLore("gui.admin.close.lore"));
 
-        admin.openInventory(inv);
+        return new GUIRenderer.View(holder, title, contents);
     }
 
     public void openDetail(Player admin, UUID targetUUID) {
+        openDetail(admin, targetUUID, 0, Period.ALL);
+    }
+
+    /**
+     * Opens the detail view; its back button returns to {@code returnPage} of the list.
+     */
+    public void openDetail(Player admin, UUID targetUUID, int returnPage, Period returnPeriod) {
+        plugin.getGUIRenderer().render(admin, () -> buildDetail(targetUUID, returnPage, returnPeriod));
+    }
+
+    /**
+     * Builds the detail view; runs off the main thread.
+     */
+    GUIRenderer.View buildDetail(UUID targetUUID, int returnPage, Period returnPeriod) {
         LanguageManager lang = plugin.getLanguageManager();
         PlaytimeManager pm = plugin.getPlaytimeManager();
 
-        adminDetailTarget.put(admin.getUniqueId(), targetUUID);
-
         String targetName = pm.getPlayerName(targetUUID);
         String formattedTime = pm.formatTime(pm.getPlaytime(targetUUID));
         int rank = pm.getRank(targetUUID);
@@ -123,44 +168,36 @@ public class AdminGUI {
         String status = isOnline ? lang.get("gui.admin.status-online") : lang.get("gui.admin.status-offline");
 
         String title = lang.get("gui.admin.title");
-        Inventory inv = Bukkit.createInventory(null, 54, title);
+        GUIHolder holder = new GUIHolder(GUIHolder.Type.ADMIN_DETAIL, returnPage, targetUUID, returnPeriod);
+        ItemStack[] contents = new ItemStack[54];
 
         // Full glass border
         Material border = getBorderMaterial();
         ItemStack borderItem = PlayerGUI.createItem(border, " ", new ArrayList<>());
         for (int i = 0; i < 54; i++) {
-            inv.setItem(i, borderItem);
+            contents[i] = borderItem;
         }
 
         // Player head in center
-        inv.setItem(22, PlayerGUI.createSkull(targetUUID,
+        contents[22] = plugin.getHeadCache().createSkull(targetUUID,
                 lang.get("gui.admin.detail-head.name", "%player%", targetName),
                 lang.getLore("gui.admin.detail-head.lore",
                         "%player%", targetName,
                         "%time%", formattedTime,
                         "%rank%", rankStr,
-                        "%status%", status)));
+                        "%status%", status));
 
         // Back
-        inv.setItem(45, PlayerGUI.createItem(Material.ARROW,
+        contents[45] = PlayerGUI.createItem(Material.ARROW,
                 lang.get("gui.admin.back.name"),
-                lang.getLore("gui.admin.back.lore")));
+                lang.getLore("gui.admin.back.lore"));
 
         // Close
-        inv.setItem(49, PlayerGUI.createItem(Material.BARRIER,
+        contents[49] = PlayerGUI.createItem(Material.BARRIER,
                 lang.get("gui.admin.close.name"),
-                lang.getLore("gui.admin.close.lore")));
-
-        admin.openInventory(inv);
-    }
-
-    public int getAdminPage(UUID uuid) {
-        return adminPages.getOrDefault(uuid, 0);
-    }
+                lang.getLore("gui.admin.close.lore"));
 
-    public void clearState(UUID uuid) {
-        adminPages.remove(uuid);
-        adminDetailTarget.remove(uuid);
+        return new GUIRenderer.View(holder, title, contents);
     }
 
     private Material getBorderMaterial() {
@@ -0,0 +1,79 @@
+package ghostyplaytime.gui;
+
+import ghostyplaytime.Period;
+import org.bukkit.Bukkit;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.InventoryHolder;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.UUID;
+
+/**
+ * Marks an inventory as one of our GUIs and carries its state, so click
+ * handling can recognize and route it without comparing titles.
+ */
+public class GUIHolder implements InventoryHolder {
+
+    public enum Type {
+        PLAYER,
+        ADMIN_LIST,
+        ADMIN_DETAIL
+    }
+
+    private final Type type;
+    private final int page;
+    private final UUID target;
+    private final Period period;
+    private Inventory inventory;
+    // Items currently shown; written on the main thread, compared by the refresher
+    private volatile ItemStack[] contents = new ItemStack[0];
+
+    /**
+     * @param page   admin list page shown, or returned to from the detail view
+     * @param target player shown in the admin detail view, otherwise null
+     * @param period ranking shown in, or returned to from, the admin list
+     */
+    public GUIHolder(Type type, int page, UUID target, Period period) {
+        this.type = type;
+        this.page = page;
+        this.target = target;
+        this.period = period;
+    }
+
+    /**
+     * Creates the inventory owned by this holder.
+     */
+    public Inventory createInventory(int size, String title) {
+        inventory = Bukkit.createInventory(this, size, title);
+        return inventory;
+    }
+
+    @Override
+    public Inventory getInventory() {
+        return inventory;
+    }
+
+    public ItemStack[] getContents() {
+        return contents;
+    }
+
+    void setContents(ItemStack[] contents) {
+        this.contents = contents;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public UUID getTarget() {
+        return target;
+    }
+
+    public Period getPeriod() {
+        return period;
+    }
+}
@@ -0,0 +1,93 @@
+package ghostyplaytime.gui;
+
+import ghostyplaytime.GhostyPlaytime;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Keeps open GUIs up to date.
+ *
+ * One async task per interval rebuilds the views of all viewers and compares
+ * them with what is shown; a single main thread task then sets only the slots
+ * that changed (e.g. the own time or moved ranks).
+ */
+public class GUIRefresher {
+
+    private record Update(Player viewer, GUIHolder holder, ItemStack[] contents, int[] slots) {
+    }
+
+    private final GhostyPlaytime plugin;
+
+    public GUIRefresher(GhostyPlaytime plugin) {
+        this.plugin = plugin;
+    }
+
+    public void start() {
+        long intervalSeconds = plugin.getConfig().getLong("gui.refresh-interval", 5);
+        if (intervalSeconds <= 0) return;
+        long intervalTicks = intervalSeconds * 20L;
+        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::refresh, intervalTicks, intervalTicks);
+    }
+
+    private void refresh() {
+        List<Update> updates = new ArrayList<>();
+        for (Map.Entry<UUID, GUIHolder> entry : plugin.getGUISessions().views().entrySet()) {
+            Player viewer = Bukkit.getPlayer(entry.getKey());
+            if (viewer == null) continue;
+            GUIHolder holder = entry.getValue();
+            GUIRenderer.View view;
+            try {
+                view = build(viewer, holder);
+            } catch (RuntimeException e) {
+                plugin.getLogger().warning("Could not refresh GUI for " + viewer.getName() + ": " + e);
+                continue;
+            }
+            // The admin list was clamped to another page (players removed); leave it as is
+            if (view.holder().getPage() != holder.getPage()) continue;
+            int[] slots = changedSlots(holder.getContents(), view.contents());
+            if (slots.length > 0) updates.add(new Update(viewer, holder, view.contents(), slots));
+        }
+        if (!updates.isEmpty()) {
+            Bukkit.getScheduler().runTask(plugin, () -> apply(updates));
+        }
+    }
+
+    private GUIRenderer.View build(Player viewer, GUIHolder holder) {
+        return switch (holder.getType()) {
+            case PLAYER -> plugin.getPlayerGUI().build(viewer);
+            case ADMIN_LIST -> plugin.getAdminGUI().buildList(holder.getPage(), holder.getPeriod());
+            case ADMIN_DETAIL -> plugin.getAdminGUI().buildDetail(holder.getTarget(), holder.getPage(), holder.getPeriod());
+        };
+    }
+
+    private static int[] changedSlots(ItemStack[] shown, ItemStack[] fresh) {
+        if (shown.length != fresh.length) return new int[0];
+        int[] slots = new int[fresh.length];
+        int count = 0;
+        for (int i = 0; i < fresh.length; i++) {
+            if (!Objects.equals(shown[i], fresh[i])) slots[count++] = i;
+        }
+        return Arrays.copyOf(slots, count);
+    }
+
+    private void apply(List<Update> updates) {
+        for (Update update : updates) {
+            // Skip viewers that closed or switched views since the rebuild
+            if (plugin.getGUISessions().get(update.viewer().getUniqueId()) != update.holder()) continue;
+            Inventory inv = update.holder().getInventory();
+            for (int slot : update.slots()) {
+                inv.setItem(slot, update.contents()[slot]);
+            }
+            update.holder().setContents(update.contents());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package ghostyplaytime.gui;
+
+import ghostyplaytime.GhostyPlaytime;
+import ghostyplaytime.LatencyHistogram;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.Inventory;
+import org.bukkit.inventory.ItemStack;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Opens GUIs in two phases: the view (data lookups, names, formatting, items)
+ * is built on an async thread, then the inventory is filled and opened on the
+ * main thread. Both phases are timed per view type.
+ */
+public class GUIRenderer {
+
+    /**
+     * A fully built view, ready to be put into an inventory.
+     */
+    public record View(GUIHolder holder, String title, ItemStack[] contents) {
+    }
+
+    private final GhostyPlaytime plugin;
+    private final Map<GUIHolder.Type, LatencyHistogram> buildTimes = new EnumMap<>(GUIHolder.Type.class);
+    private final Map<GUIHolder.Type, LatencyHistogram> openTimes = new EnumMap<>(GUIHolder.Type.class);
+
+    public GUIRenderer(GhostyPlaytime plugin) {
+        this.plugin = plugin;
+        for (GUIHolder.Type type : GUIHolder.Type.values()) {
+            buildTimes.put(type, new LatencyHistogram());
+            openTimes.put(type, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Builds the view off the main thread and opens it for the viewer once done.
+     * Nothing is opened if the viewer left in the meantime.
+     */
+    public void render(Player viewer, Supplier<View> builder) {
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            long start = System.nanoTime();
+            View view;
+            try {
+                view = builder.get();
+            } catch (RuntimeException e) {
+                plugin.getLogger().severe("Could not build GUI for " + viewer.getName() + ": " + e);
+                return;
+            }
+            buildTimes.get(view.holder().getType()).record(System.nanoTime() - start);
+            Bukkit.getScheduler().runTask(plugin, () -> open(viewer, view));
+        });
+    }
+
+    private void open(Player viewer, View view) {
+        if (!viewer.isOnline()) return;
+        long start = System.nanoTime();
+        Inventory inv = view.holder().createInventory(view.contents().length, view.title());
+        ItemStack[] contents = view.contents();
+        for (int i = 0; i < contents.length; i++) {
+            if (contents[i] != null) inv.setItem(i, contents[i]);
+        }
+        view.holder().setContents(contents);
+        viewer.openInventory(inv);
+        plugin.getGUISessions().opened(viewer, view.holder());
+        openTimes.get(view.holder().getType()).record(System.nanoTime() - start);
+    }
+
+    /**
+     * Time spent building views of the given type off the main thread.
+     */
+    public LatencyHistogram getBuildTimes(GUIHolder.Type type) {
+        return buildTimes.get(type);
+    }
+
+    /**
+     * Time spent on the main thread filling and opening views of the given type.
+     */
+    public LatencyHistogram getOpenTimes(GUIHolder.Type type) {
+        return openTimes.get(type);
+    }
+}
@@ -0,0 +1,75 @@
+package ghostyplaytime.gui;
+
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the GUI each viewer currently has open.
+ *
+ * Views are registered when opened and removed again on close or quit, so no
+ * state outlives the inventory. Safe to read from any thread.
+ */
+public class GUISessions {
+
+    private final Map<UUID, GUIHolder> open = new ConcurrentHashMap<>();
+
+    /**
+     * Records that the viewer now looks at the given view, replacing the previous one.
+     */
+    public void opened(Player viewer, GUIHolder holder) {
+        open.put(viewer.getUniqueId(), holder);
+    }
+
+    /**
+     * Forgets the view, unless the viewer has already moved on to another one.
+     */
+    public void closed(UUID viewer, GUIHolder holder) {
+        open.remove(viewer, holder);
+    }
+
+    public void quit(UUID viewer) {
+        open.remove(viewer);
+    }
+
+    /**
+     * Returns the view the player has open, or null.
+     */
+    public GUIHolder get(UUID viewer) {
+        return open.get(viewer);
+    }
+
+    /**
+     * Returns a copy of all open views by viewer.
+     */
+    public Map<UUID, GUIHolder> views() {
+        return Map.copyOf(open);
+    }
+
+    public int count() {
+        return open.size();
+    }
+
+    public int count(GUIHolder.Type type) {
+        int count = 0;
+        for (GUIHolder holder : open.values()) {
+            if (holder.getType() == type) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Closes all open views, e.g. when the plugin is disabled.
+     */
+    public void closeAll() {
+        for (UUID viewer : new ArrayList<>(open.keySet())) {
+            Player player = Bukkit.getPlayer(viewer);
+            if (player != null) player.closeInventory();
+        }
+        open.clear();
+    }
+}
@@ -0,0 +1,140 @@
+package ghostyplaytime.gui;
+
+import ghostyplaytime.GhostyPlaytime;
+import org.bukkit.Bukkit;
+import org.bukkit.Material;
+import org.bukkit.entity.Player;
+import org.bukkit.inventory.ItemStack;
+import org.bukkit.inventory.meta.SkullMeta;
+import org.bukkit.profile.PlayerProfile;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of prebuilt player head items (LRU with a size limit and TTL).
+ *
+ * GUIs clone the cached base item and only set name and lore. On a miss the
+ * head is built from a bare profile (UUID only, no lookup) and its textures
+ * are resolved off the main thread via {@link PlayerProfile#update()}; the
+ * resolved item replaces the bare one once done. Expired entries keep being
+ * served while they are refreshed.
+ */
+public class HeadCache {
+
+    private final GhostyPlaytime plugin;
+    private final Map<UUID, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Set<UUID> resolving = new HashSet<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private int maxSize;
+    private long ttlNanos;
+
+    public HeadCache(GhostyPlaytime plugin) {
+        this.plugin = plugin;
+        reload();
+    }
+
+    /**
+     * Reads the limits from the config and drops all cached heads.
+     */
+    public synchronized void reload() {
+        maxSize = Math.max(1, plugin.getConfig().getInt("gui.head-cache.size", 500));
+        ttlNanos = TimeUnit.MINUTES.toNanos(Math.max(1, plugin.getConfig().getInt("gui.head-cache.ttl-minutes", 60)));
+        entries.clear();
+    }
+
+    /**
+     * Returns a new head item for the player with the given name and lore.
+     */
+    public ItemStack createSkull(UUID uuid, String name, List<String> lore) {
+        ItemStack skull = base(uuid).clone();
+        SkullMeta meta = (SkullMeta) skull.getItemMeta();
+        if (meta != null) {
+            meta.setDisplayName(name);
+            meta.setLore(lore);
+            skull.setItemMeta(meta);
+        }
+        return skull;
+    }
+
+    private synchronized ItemStack base(UUID uuid) {
+        Entry entry = entries.get(uuid);
+        long now = System.nanoTime();
+        if (entry != null && entry.resolved && now < entry.expiresAt) {
+            hits.increment();
+            return entry.item;
+        }
+        misses.increment();
+        if (entry == null) {
+            Player online = Bukkit.getPlayer(uuid);
+            if (online != null) {
+                // Online players already carry a complete profile
+                entry = put(uuid, buildHead(online.getPlayerProfile()), true);
+                return entry.item;
+            }
+            entry = put(uuid, buildHead(Bukkit.createPlayerProfile(uuid)), false);
+        }
+        resolve(uuid);
+        return entry.item;
+    }
+
+    private void resolve(UUID uuid) {
+        if (!resolving.add(uuid)) return;
+        Bukkit.createPlayerProfile(uuid).update().whenComplete((profile, error) -> {
+            synchronized (this) {
+                resolving.remove(uuid);
+                Entry current = entries.get(uuid);
+                if (error != null || profile == null) {
+                    // Keep the bare head, but do not retry before the TTL runs out
+                    if (current != null) put(uuid, current.item, true);
+                    return;
+                }
+                put(uuid, buildHead(profile), true);
+            }
+        });
+    }
+
+    private Entry put(UUID uuid, ItemStack item, boolean resolved) {
+        Entry entry = new Entry(item, resolved, System.nanoTime() + ttlNanos);
+        entries.put(uuid, entry);
+        if (entries.size() > maxSize) {
+            Iterator<UUID> eldest = entries.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+        return entry;
+    }
+
+    private static ItemStack buildHead(PlayerProfile profile) {
+        ItemStack skull = new ItemStack(Material.PLAYER_HEAD);
+        SkullMeta meta = (SkullMeta) skull.getItemMeta();
+        if (meta != null) {
+            meta.setOwnerProfile(profile);
+            skull.setItemMeta(meta);
+        }
+        return skull;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    private record Entry(ItemStack item, boolean resolved, long expiresAt) {
+    }
+}
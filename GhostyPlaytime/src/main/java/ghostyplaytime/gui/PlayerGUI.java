@@ -2,15 +2,12 @@ package ghostyplaytime.gui;
 
 import ghostyplaytime.GhostyPlaytime;
 import ghostyplaytime.LanguageManager;
+import ghostyplaytime.Period;
 import ghostyplaytime.PlaytimeManager;
-import org.bukkit.Bukkit;
 import org.bukkit.Material;
-import org.bukkit.OfflinePlayer;
 import org.bukkit.entity.Player;
-import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.ItemMeta;
-import org.bukkit.inventory.meta.SkullMeta;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -41,50 +38,58 @@ public class PlayerGUI {
     }
 
     public void open(Player player) {
+        plugin.getGUIRenderer().render(player, () -> build(player));
+    }
+
+    /**
+     * Builds the view; runs off the main thread.
+     */
+    GUIRenderer.View build(Player player) {
         LanguageManager lang = plugin.getLanguageManager();
         PlaytimeManager pm = plugin.getPlaytimeManager();
+        HeadCache heads = plugin.getHeadCache();
 
         String title = lang.get("gui.player.title");
-        Inventory inv = Bukkit.createInventory(null, 54, title);
+        GUIHolder holder = new GUIHolder(GUIHolder.Type.PLAYER, 0, null, Period.ALL);
+        ItemStack[] contents = new ItemStack[54];
 
         // Fill with border glass panes
         Material borderMaterial = getBorderMaterial();
         ItemStack border = createItem(borderMaterial, " ", new ArrayList<>());
         for (int i = 0; i < 54; i++) {
-            inv.setItem(i, border);
+            contents[i] = border;
         }
 
-        // Own head
-        long ownTime = pm.getPlaytime(player.getUniqueId());
-        int ownRank = pm.getRank(player.getUniqueId());
-        String formattedTime = pm.formatTime(ownTime);
-        String rankStr = ownRank < 0 ? "?" : String.valueOf(ownRank);
+        // Own head and top players come from one standing so they always agree
+        int topAmount = plugin.getConfig().getInt("top.amount", 5);
+        PlaytimeManager.Standing standing = pm.getStanding(player.getUniqueId(), topAmount);
+        String formattedTime = pm.formatTime(standing.playtime());
+        String rankStr = standing.rank() < 0 ? "?" : String.valueOf(standing.rank());
 
-        ItemStack ownHead = createSkull(player.getUniqueId(),
+        ItemStack ownHead = heads.createSkull(player.getUniqueId(),
                 lang.get("gui.player.own-head.name",
                         "%player%", player.getName()),
                 lang.getLore("gui.player.own-head.lore",
                         "%player%", player.getName(),
                         "%time%", formattedTime,
                         "%rank%", rankStr));
-        inv.setItem(SLOT_OWN_HEAD, ownHead);
+        contents[SLOT_OWN_HEAD] = ownHead;
 
         // Top label
-        int topAmount = plugin.getConfig().getInt("top.amount", 5);
         ItemStack topLabel = createItem(Material.NETHER_STAR,
                 lang.get("gui.player.top-label.name"),
                 lang.getLore("gui.player.top-label.lore"));
-        inv.setItem(SLOT_TOP_LABEL, topLabel);
+        contents[SLOT_TOP_LABEL] = topLabel;
 
         // Top players
-        List<Map.Entry<UUID, Long>> topPlayers = pm.getTopPlayers(topAmount);
+        List<Map.Entry<UUID, Long>> topPlayers = standing.top();
         for (int i = 0; i < Math.min(topPlayers.size(), SLOT_TOP_PLAYERS.length); i++) {
             Map.Entry<UUID, Long> entry = topPlayers.get(i);
             String topName = pm.getPlayerName(entry.getKey());
             String topTime = pm.formatTime(entry.getValue());
             int rank = i + 1;
 
-            ItemStack topHead = createSkull(entry.getKey(),
+            ItemStack topHead = heads.createSkull(entry.getKey(),
                     lang.get("gui.player.top-head.name",
                             "%rank%", String.valueOf(rank),
                             "%player%", topName),
@@ -92,16 +97,16 @@ public class PlayerGUI {
                             "%rank%", String.valueOf(rank),
                             "%player%", topName,
                             "%time%", topTime));
-            inv.setItem(SLOT_TOP_PLAYERS[i], topHead);
+            contents[SLOT_TOP_PLAYERS[i]] = topHead;
         }
 
         // Close button
         ItemStack closeBtn = createItem(Material.BARRIER,
                 lang.get("gui.player.close.name"),
                 lang.getLore("gui.player.close.lore"));
-        inv.setItem(SLOT_CLOSE, closeBtn);
+        contents[SLOT_CLOSE] = closeBtn;
 
-        player.openInventory(inv);
+        return new GUIRenderer.View(holder, title, contents);
     }
 
     private Material getBorderMaterial() {
@@ -123,17 +128,4 @@ public class PlayerGUI {
         }
         return item;
     }
-
-    public static ItemStack createSkull(UUID uuid, String name, List<String> lore) {
-        ItemStack skull = new ItemStack(Material.PLAYER_HEAD);
-        SkullMeta meta = (SkullMeta) skull.getItemMeta();
-        if (meta != null) {
-            OfflinePlayer offlinePlayer = Bukkit.getOfflinePlayer(uuid);
-            meta.setOwningPlayer(offlinePlayer);
-            meta.setDisplayName(name);
-            meta.setLore(lore);
-            skull.setItemMeta(meta);
-        }
-        return skull;
-    }
 }
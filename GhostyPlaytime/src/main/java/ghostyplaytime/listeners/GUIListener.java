@@ -1,15 +1,17 @@
 package ghostyplaytime.listeners;
 
 import ghostyplaytime.GhostyPlaytime;
-import ghostyplaytime.LanguageManager;
+import ghostyplaytime.LatencyHistogram;
+import ghostyplaytime.Period;
 import ghostyplaytime.gui.AdminGUI;
-import ghostyplaytime.gui.PlayerGUI;
-import org.bukkit.ChatColor;
+import ghostyplaytime.gui.GUIHolder;
 import org.bukkit.Material;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
 import org.bukkit.event.inventory.InventoryClickEvent;
+import org.bukkit.event.inventory.InventoryCloseEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.inventory.Inventory;
 import org.bukkit.inventory.ItemStack;
 import org.bukkit.inventory.meta.SkullMeta;
@@ -19,79 +21,94 @@ import java.util.*;
 public class GUIListener implements Listener {
 
     private final GhostyPlaytime plugin;
-    private final PlayerGUI playerGUI;
-    private final AdminGUI adminGUI;
+    private final Map<GUIHolder.Type, LatencyHistogram> clickTimes = new EnumMap<>(GUIHolder.Type.class);
 
     public GUIListener(GhostyPlaytime plugin) {
         this.plugin = plugin;
-        this.playerGUI = new PlayerGUI(plugin);
-        this.adminGUI = new AdminGUI(plugin);
+        for (GUIHolder.Type type : GUIHolder.Type.values()) {
+            clickTimes.put(type, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Time spent on the main thread handling clicks in views of the given type.
+     */
+    public LatencyHistogram getClickTimes(GUIHolder.Type type) {
+        return clickTimes.get(type);
     }
 
-    public PlayerGUI getPlayerGUI() { return playerGUI; }
-    public AdminGUI getAdminGUI()   { return adminGUI; }
+    @EventHandler
+    public void onInventoryClose(InventoryCloseEvent event) {
+        if (event.getInventory().getHolder() instanceof GUIHolder holder) {
+            plugin.getGUISessions().closed(event.getPlayer().getUniqueId(), holder);
+        }
+    }
+
+    @EventHandler
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        plugin.getGUISessions().quit(event.getPlayer().getUniqueId());
+    }
 
     @EventHandler
     public void onInventoryClick(InventoryClickEvent event) {
         if (!(event.getWhoClicked() instanceof Player player)) return;
 
         Inventory inv = event.getInventory();
-        String title = ChatColor.stripColor(event.getView().getTitle());
-
-        LanguageManager lang = plugin.getLanguageManager();
-        String playerGUITitle   = ChatColor.stripColor(lang.get("gui.player.title"));
-        String adminListTitle   = ChatColor.stripColor(lang.get("gui.admin.all-title"));
-        String adminDetailTitle = ChatColor.stripColor(lang.get("gui.admin.title"));
-
-        boolean isPlayerGUI   = title.equals(playerGUITitle);
-        boolean isAdminList   = title.equals(adminListTitle);
-        boolean isAdminDetail = title.equals(adminDetailTitle);
-
-        if (!isPlayerGUI && !isAdminList && !isAdminDetail) return;
+        if (!(inv.getHolder() instanceof GUIHolder holder)) return;
 
         event.setCancelled(true);
 
+        long start = System.nanoTime();
+        try {
+            handleClick(event, player, inv, holder);
+        } finally {
+            clickTimes.get(holder.getType()).record(System.nanoTime() - start);
+        }
+    }
+
+    private void handleClick(InventoryClickEvent event, Player player, Inventory inv, GUIHolder holder) {
         if (event.getClickedInventory() == null || !event.getClickedInventory().equals(inv)) return;
         ItemStack clicked = event.getCurrentItem();
         if (clicked == null || clicked.getType() == Material.AIR) return;
 
         int slot = event.getSlot();
+        AdminGUI adminGUI = plugin.getAdminGUI();
 
         // ── Player GUI ──────────────────────────────────────────
-        if (isPlayerGUI) {
+        if (holder.getType() == GUIHolder.Type.PLAYER) {
             if (clicked.getType() == Material.BARRIER) {
                 player.closeInventory();
             }
         }
 
         // ── Admin List GUI ──────────────────────────────────────
-        else if (isAdminList) {
-            int currentPage = adminGUI.getAdminPage(player.getUniqueId());
-            List<Map.Entry<UUID, Long>> allPlayers = plugin.getPlaytimeManager().getAllSorted();
-            int totalPages = Math.max(1, (int) Math.ceil(allPlayers.size() / (double) 45));
+        else if (holder.getType() == GUIHolder.Type.ADMIN_LIST) {
+            int currentPage = holder.getPage();
+            Period period = holder.getPeriod();
+            int totalPages = adminGUI.getTotalPages(period);
 
             if (clicked.getType() == Material.BARRIER) {
                 player.closeInventory();
-                adminGUI.clearState(player.getUniqueId());
             } else if (slot == 45 && clicked.getType() == Material.ARROW && currentPage > 0) {
-                adminGUI.openList(player, currentPage - 1);
+                adminGUI.openList(player, currentPage - 1, period);
             } else if (slot == 53 && clicked.getType() == Material.ARROW && currentPage < totalPages - 1) {
-                adminGUI.openList(player, currentPage + 1);
+                adminGUI.openList(player, currentPage + 1, period);
+            } else if (slot == 47 && clicked.getType() == Material.CLOCK) {
+                adminGUI.openList(player, 0, period.next());
             } else if (slot < 45 && clicked.getType() == Material.PLAYER_HEAD) {
                 SkullMeta meta = (SkullMeta) clicked.getItemMeta();
                 if (meta != null && meta.getOwningPlayer() != null) {
-                    adminGUI.openDetail(player, meta.getOwningPlayer().getUniqueId());
+                    adminGUI.openDetail(player, meta.getOwningPlayer().getUniqueId(), currentPage, period);
                 }
             }
         }
 
         // ── Admin Detail GUI ────────────────────────────────────
-        else if (isAdminDetail) {
+        else if (holder.getType() == GUIHolder.Type.ADMIN_DETAIL) {
             if (slot == 45 && clicked.getType() == Material.ARROW) {
-                adminGUI.openList(player, adminGUI.getAdminPage(player.getUniqueId()));
+                adminGUI.openList(player, holder.getPage(), holder.getPeriod());
             } else if (clicked.getType() == Material.BARRIER) {
                 player.closeInventory();
-                adminGUI.clearState(player.getUniqueId());
             }
         }
     }
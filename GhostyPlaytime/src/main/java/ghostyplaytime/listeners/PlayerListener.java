@@ -17,14 +17,14 @@ public class PlayerListener implements Listener {
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerJoin(PlayerJoinEvent event) {
-        // Ensure player is initialized in the map (returns 0 for new players)
-        plugin.getPlaytimeManager().getPlaytime(event.getPlayer().getUniqueId());
+        plugin.getPlaytimeManager().startSession(event.getPlayer().getUniqueId());
+        plugin.getPlaytimeManager().updateName(event.getPlayer().getUniqueId(), event.getPlayer().getName());
     }
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerQuit(PlayerQuitEvent event) {
-        // Async save on disconnect to prevent data loss
-        plugin.getServer().getScheduler().runTaskAsynchronously(plugin,
-                () -> plugin.getPlaytimeManager().saveAll());
+        plugin.getPlaytimeManager().endSession(event.getPlayer().getUniqueId());
+        // Save on disconnect to prevent data loss; bursts of quits share one save
+        plugin.getPlaytimeManager().saveAll();
     }
 }
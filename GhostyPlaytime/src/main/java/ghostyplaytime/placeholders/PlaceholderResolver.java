@@ -0,0 +1,213 @@
+package ghostyplaytime.placeholders;
+
+import ghostyplaytime.DurationFormatter;
+import ghostyplaytime.GhostyPlaytime;
+import ghostyplaytime.Period;
+import ghostyplaytime.PlaytimeManager;
+import org.bukkit.Bukkit;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Resolves playtime placeholders from precomputed values, for scoreboards and
+ * tab lists that ask for them several times per second.
+ *
+ * An async task recomputes the values of all online players every
+ * {@code placeholders.refresh-interval} seconds in a few batch queries and
+ * publishes them as one immutable snapshot; ranks and formatted times are
+ * taken from there, and a time is only formatted again once it changed.
+ * Resolving is a map lookup and never touches the manager's lock. Players not
+ * in the snapshot (offline, or joined since the last refresh) are computed on
+ * first request and kept until the next refresh.
+ *
+ * Supported identifiers: {@code playtime}, {@code playtime_seconds},
+ * {@code playtime_minutes}, {@code playtime_hours}, {@code rank},
+ * {@code playtime_<period>}, {@code rank_<period>} (all, day, week, month),
+ * {@code top_<n>_name}, {@code top_<n>_playtime} (n = 1-10) and {@code players}.
+ */
+public class PlaceholderResolver {
+
+    public static final int TOP_SIZE = 10;
+    private static final Period[] PERIODS = {Period.DAY, Period.WEEK, Period.MONTH};
+    private static final String UNRANKED = "-";
+
+    private final GhostyPlaytime plugin;
+    private volatile Snapshot snapshot = new Snapshot(null, Map.of(), new String[0], new String[0], 0);
+    // Identifiers as requested, parsed once
+    private final Map<String, Placeholder> compiled = new ConcurrentHashMap<>();
+
+    public PlaceholderResolver(GhostyPlaytime plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Schedules the periodic refresh.
+     */
+    public void start() {
+        long ticks = Math.max(1, plugin.getConfig().getInt("placeholders.refresh-interval", 1)) * 20L;
+        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, this::refresh, 0L, ticks);
+    }
+
+    /**
+     * Recomputes the values of all online players and the top list.
+     */
+    public void refresh() {
+        PlaytimeManager manager = plugin.getPlaytimeManager();
+        DurationFormatter formatter = plugin.getLanguageManager().getDurationFormatter();
+        Snapshot previous = snapshot;
+        // Formatted times can only be reused as long as the language is the same
+        Map<UUID, PlayerValues> reusable = previous.formatter == formatter ? previous.players : Map.of();
+
+        Set<UUID> online = manager.getSessionPlayers();
+        Map<UUID, Long> playtimes = manager.getPlaytimes(online);
+        Map<UUID, Integer> ranks = manager.getRanks(online);
+        Map<UUID, PlayerValues> players = new HashMap<>(online.size() * 2);
+        for (UUID uuid : online) {
+            players.put(uuid, compute(manager, formatter, uuid, playtimes.get(uuid), ranks.get(uuid), reusable.get(uuid)));
+        }
+
+        List<Map.Entry<UUID, Long>> top = manager.getTopPlayers(TOP_SIZE);
+        String[] topNames = new String[top.size()];
+        String[] topTimes = new String[top.size()];
+        for (int i = 0; i < top.size(); i++) {
+            topNames[i] = manager.getPlayerName(top.get(i).getKey());
+            topTimes[i] = formatter.format(top.get(i).getValue());
+        }
+        snapshot = new Snapshot(formatter, players, topNames, topTimes, manager.getPlayerCount());
+    }
+
+    private static PlayerValues compute(PlaytimeManager manager, DurationFormatter formatter, UUID uuid,
+                                        long seconds, int rank, PlayerValues previous) {
+        long[] periodSeconds = new long[PERIODS.length];
+        String[] periodFormatted = new String[PERIODS.length];
+        int[] periodRanks = new int[PERIODS.length];
+        if (manager.isHistoryEnabled()) {
+            for (int p = 0; p < PERIODS.length; p++) {
+                periodSeconds[p] = manager.getPlaytime(uuid, PERIODS[p]);
+                periodRanks[p] = manager.getRank(uuid, PERIODS[p]);
+            }
+        } else {
+            Arrays.fill(periodRanks, -1);
+        }
+        for (int p = 0; p < PERIODS.length; p++) {
+            periodFormatted[p] = previous != null && previous.periodSeconds[p] == periodSeconds[p]
+                    ? previous.periodFormatted[p] : formatter.format(periodSeconds[p]);
+        }
+        String formatted = previous != null && previous.seconds == seconds ? previous.formatted : formatter.format(seconds);
+        return new PlayerValues(seconds, formatted, rank, periodSeconds, periodFormatted, periodRanks);
+    }
+
+    /**
+     * Resolves a placeholder identifier (without the plugin prefix) for a player.
+     * The player may be null for the top list and player count. Returns null if
+     * the identifier is unknown or needs a player.
+     */
+    public String resolve(UUID player, String identifier) {
+        Placeholder placeholder = compiled.get(identifier);
+        if (placeholder == null) {
+            placeholder = compile(identifier.toLowerCase(Locale.ROOT));
+            if (placeholder == null) return null;
+            // Only known identifiers are kept, so junk requests cannot grow the map
+            compiled.put(identifier, placeholder);
+        }
+        return placeholder.resolve(snapshot, player);
+    }
+
+    private Placeholder compile(String id) {
+        switch (id) {
+            case "players":
+                return (current, player) -> String.valueOf(current.playerCount);
+            case "playtime":
+                return perPlayer(values -> values.formatted);
+            case "playtime_seconds":
+                return perPlayer(values -> String.valueOf(values.seconds));
+            case "playtime_minutes":
+                return perPlayer(values -> String.valueOf(values.seconds / 60));
+            case "playtime_hours":
+                return perPlayer(values -> String.valueOf(values.seconds / 3600));
+            case "rank":
+                return perPlayer(values -> rank(values.rank));
+            default:
+                break;
+        }
+        if (id.startsWith("top_")) return compileTop(id);
+        if (id.startsWith("playtime_") || id.startsWith("rank_")) {
+            Period period = Period.parse(id.substring(id.indexOf('_') + 1));
+            if (period == null) return null;
+            boolean isRank = id.startsWith("rank_");
+            if (period == Period.ALL) return compile(isRank ? "rank" : "playtime");
+            int p = Arrays.asList(PERIODS).indexOf(period);
+            return perPlayer(values -> isRank ? rank(values.periodRanks[p]) : values.periodFormatted[p]);
+        }
+        return null;
+    }
+
+    // top_<n>_name / top_<n>_playtime
+    private static Placeholder compileTop(String id) {
+        int end = id.indexOf('_', 4);
+        if (end < 0) return null;
+        int n;
+        try {
+            n = Integer.parseInt(id.substring(4, end));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (n < 1 || n > TOP_SIZE) return null;
+        String field = id.substring(end + 1);
+        if (!field.equals("name") && !field.equals("playtime")) return null;
+        boolean name = field.equals("name");
+        return (current, player) -> {
+            if (n > current.topNames.length) return UNRANKED;
+            return name ? current.topNames[n - 1] : current.topTimes[n - 1];
+        };
+    }
+
+    private Placeholder perPlayer(Function<PlayerValues, String> field) {
+        return (current, player) -> player == null ? null : field.apply(values(current, player));
+    }
+
+    private PlayerValues values(Snapshot current, UUID player) {
+        PlayerValues values = current.players.get(player);
+        if (values != null) return values;
+        return current.misses.computeIfAbsent(player, uuid -> {
+            PlaytimeManager manager = plugin.getPlaytimeManager();
+            DurationFormatter formatter = current.formatter != null
+                    ? current.formatter : plugin.getLanguageManager().getDurationFormatter();
+            return compute(manager, formatter, uuid, manager.getPlaytime(uuid), manager.getRank(uuid), null);
+        });
+    }
+
+    private static String rank(int rank) {
+        return rank > 0 ? String.valueOf(rank) : UNRANKED;
+    }
+
+    private interface Placeholder {
+        String resolve(Snapshot current, UUID player);
+    }
+
+    private record PlayerValues(long seconds, String formatted, int rank,
+                                long[] periodSeconds, String[] periodFormatted, int[] periodRanks) {
+    }
+
+    private static final class Snapshot {
+
+        final DurationFormatter formatter;
+        final Map<UUID, PlayerValues> players;
+        final String[] topNames;
+        final String[] topTimes;
+        final int playerCount;
+        // Players computed on request since this snapshot was taken
+        final Map<UUID, PlayerValues> misses = new ConcurrentHashMap<>();
+
+        Snapshot(DurationFormatter formatter, Map<UUID, PlayerValues> players,
+                 String[] topNames, String[] topTimes, int playerCount) {
+            this.formatter = formatter;
+            this.players = players;
+            this.topNames = topNames;
+            this.topTimes = topTimes;
+            this.playerCount = playerCount;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package ghostyplaytime.placeholders;
+
+import ghostyplaytime.GhostyPlaytime;
+import me.clip.placeholderapi.expansion.PlaceholderExpansion;
+import org.bukkit.OfflinePlayer;
+
+/**
+ * Exposes the {@link PlaceholderResolver} to PlaceholderAPI as
+ * {@code %ghostyplaytime_<identifier>%}. Only loaded if PlaceholderAPI is installed.
+ */
+public class PlaytimeExpansion extends PlaceholderExpansion {
+
+    private final GhostyPlaytime plugin;
+
+    public PlaytimeExpansion(GhostyPlaytime plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public String getIdentifier() {
+        return "ghostyplaytime";
+    }
+
+    @Override
+    public String getAuthor() {
+        return String.join(", ", plugin.getDescription().getAuthors());
+    }
+
+    @Override
+    public String getVersion() {
+        return plugin.getDescription().getVersion();
+    }
+
+    // Registered by the plugin itself, so keep it across PlaceholderAPI reloads
+    @Override
+    public boolean persist() {
+        return true;
+    }
+
+    @Override
+    public String onRequest(OfflinePlayer player, String params) {
+        // Without a player, e.g. in holograms, only the top list and player count resolve
+        return plugin.getPlaceholderResolver().resolve(player != null ? player.getUniqueId() : null, params);
+    }
+}
@@ -0,0 +1,236 @@
+package ghostyplaytime.storage;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * Immutable, memory-mapped file of players in leaderboard order (playtime
+ * descending, ties by UUID), so ranks and pages are positions in the file.
+ *
+ * Layout: a header (magic, record count, slot count twice), fixed-size records of
+ * (most bits, least bits, seconds, name as up to {@value #NAME_BYTES} UTF-8
+ * bytes) and two open-addressed hashes of record positions, one for UUID and
+ * one for (case-insensitive) name lookups. Only the pages actually touched are
+ * read from disk, by the operating system.
+ * Reads are thread-safe; a new file is written by {@link #write}.
+ */
+public final class ColdIndex {
+
+    /** Produces the records of a new index, in leaderboard order. */
+    public interface Records {
+        void forEach(RecordConsumer consumer) throws IOException;
+    }
+
+    /** Receives one record; the name may be null if unknown. */
+    public interface RecordConsumer {
+        void accept(long msb, long lsb, long seconds, String name) throws IOException;
+    }
+
+    private static final int MAGIC = 0x47505443; // "GPTC"
+    private static final int HEADER = 16;
+    private static final int NAME_BYTES = 32;
+    private static final int RECORD = 24 + NAME_BYTES;
+
+    private static final ColdIndex EMPTY = new ColdIndex(ByteBuffer.allocate(HEADER), 0, 0);
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int slotMask;
+    private final int slotsOffset;
+    private final int nameSlotsOffset;
+
+    private ColdIndex(ByteBuffer buffer, int size, int slots) {
+        this.buffer = buffer;
+        this.size = size;
+        this.slotMask = slots - 1;
+        this.slotsOffset = HEADER + size * RECORD;
+        this.nameSlotsOffset = slotsOffset + slots * 4;
+    }
+
+    public static ColdIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Maps an index file written by {@link #write}.
+     */
+    public static ColdIndex open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("Cold index too large: " + file.getName());
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.capacity() < HEADER || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a cold index: " + file.getName());
+            }
+            int size = buffer.getInt(4);
+            int slots = buffer.getInt(8);
+            // The name hash has as many slots as the UUID hash; older files have none
+            if (buffer.getInt(12) != slots) throw new IOException("Outdated cold index: " + file.getName());
+            if (Integer.bitCount(slots) != 1 || (long) HEADER + (long) size * RECORD + 8L * slots != buffer.capacity()) {
+                throw new IOException("Truncated cold index: " + file.getName());
+            }
+            return new ColdIndex(buffer, size, slots);
+        }
+    }
+
+    /**
+     * Writes {@code count} records, which must already be in leaderboard order,
+     * to a new index file (atomically replacing an existing one).
+     */
+    public static void write(File file, int count, Records records) throws IOException {
+        int slots = Integer.highestOneBit(Math.max(2, count * 2 - 1)) << 1;
+        int[] hash = new int[slots];
+        int[] nameHash = new int[slots];
+        AtomicFiles.write(file, stream -> {
+            DataOutputStream out = new DataOutputStream(stream);
+            out.writeInt(MAGIC);
+            out.writeInt(count);
+            out.writeInt(slots);
+            out.writeInt(slots);
+            byte[] encoded = new byte[NAME_BYTES];
+            int[] written = {0};
+            records.forEach((msb, lsb, seconds, name) -> {
+                if (written[0] == count) throw new IOException("More records than announced");
+                out.writeLong(msb);
+                out.writeLong(lsb);
+                out.writeLong(seconds);
+                boolean named = encodeName(name, encoded);
+                out.write(encoded);
+                int slot = hash(msb, lsb) & (slots - 1);
+                while (hash[slot] != 0) slot = (slot + 1) & (slots - 1);
+                hash[slot] = ++written[0];
+                if (named) {
+                    slot = nameHash(name) & (slots - 1);
+                    while (nameHash[slot] != 0) slot = (slot + 1) & (slots - 1);
+                    nameHash[slot] = written[0];
+                }
+            });
+            if (written[0] != count) throw new IOException("Fewer records than announced");
+            for (int slot : hash) {
+                out.writeInt(slot);
+            }
+            for (int slot : nameHash) {
+                out.writeInt(slot);
+            }
+            out.flush();
+        });
+    }
+
+    /**
+     * Returns false if the record has no name.
+     */
+    private static boolean encodeName(String name, byte[] target) {
+        Arrays.fill(target, (byte) 0);
+        if (name == null) return false;
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        // Longer names cannot be real player names; they are dropped rather than cut
+        if (bytes.length == 0 || bytes.length > NAME_BYTES) return false;
+        System.arraycopy(bytes, 0, target, 0, bytes.length);
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the position of a player, or -1.
+     */
+    public int find(long msb, long lsb) {
+        if (size == 0) return -1;
+        for (int slot = hash(msb, lsb) & slotMask; ; slot = (slot + 1) & slotMask) {
+            int position = buffer.getInt(slotsOffset + slot * 4) - 1;
+            if (position < 0) return -1;
+            if (mostBits(position) == msb && leastBits(position) == lsb) return position;
+        }
+    }
+
+    public long mostBits(int position) {
+        return buffer.getLong(HEADER + position * RECORD);
+    }
+
+    public long leastBits(int position) {
+        return buffer.getLong(HEADER + position * RECORD + 8);
+    }
+
+    public long seconds(int position) {
+        return buffer.getLong(HEADER + position * RECORD + 16);
+    }
+
+    /**
+     * Returns the recorded name, or null if none was known.
+     */
+    public String name(int position) {
+        int offset = HEADER + position * RECORD + 24;
+        int length = 0;
+        while (length < NAME_BYTES && buffer.get(offset + length) != 0) length++;
+        if (length == 0) return null;
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the number of records ranking ahead of the given key, which does
+     * not need to be in the index.
+     */
+    public int countBefore(long value, long msb, long lsb) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ranksBefore(mid, value, msb, lsb)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private boolean ranksBefore(int position, long value, long msb, long lsb) {
+        long seconds = seconds(position);
+        if (seconds != value) return seconds > value;
+        int c = Long.compare(mostBits(position), msb);
+        return c != 0 ? c < 0 : leastBits(position) < lsb;
+    }
+
+    /**
+     * Finds a player by name (case-insensitive) that the filter accepts, or
+     * returns -1. Several positions can have the same name, e.g. after renames.
+     */
+    public int findByName(String name, IntPredicate filter) {
+        if (size == 0) return -1;
+        for (int slot = nameHash(name) & slotMask; ; slot = (slot + 1) & slotMask) {
+            int position = buffer.getInt(nameSlotsOffset + slot * 4) - 1;
+            if (position < 0) return -1;
+            if (name.equalsIgnoreCase(name(position)) && filter.test(position)) return position;
+        }
+    }
+
+    private static int hash(long msb, long lsb) {
+        long h = msb * 0x9E3779B97F4A7C15L ^ lsb;
+        h ^= h >>> 29;
+        h *= 0xBF58476D1CE4E5B9L;
+        return (int) (h ^ h >>> 32);
+    }
+
+    /**
+     * Hash of a name that is equal for names differing only in case, folding
+     * every character the way {@link String#equalsIgnoreCase} compares it.
+     */
+    private static int nameHash(String name) {
+        int h = 0;
+        for (int i = 0; i < name.length(); i++) {
+            h = 31 * h + Character.toLowerCase(Character.toUpperCase(name.charAt(i)));
+        }
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        return h ^ h >>> 13;
+    }
+}
@@ -0,0 +1,168 @@
+package ghostyplaytime.storage;
+
+import org.h2.Driver;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+
+/**
+ * Stores playtime in an embedded H2 database (playtime.mv.db).
+ *
+ * The connection is confined to a single I/O thread; all statements are
+ * submitted to it. Saves are written as batched MERGE upserts in one
+ * transaction. Rankings are served from memory, so the table is only keyed by UUID.
+ */
+public class H2PlaytimeStore implements PlaytimeStore {
+
+    private static final int BATCH_SIZE = 1000;
+    // Longer than Java edition names, so prefixed Bedrock names fit as well
+    private static final int MAX_NAME_LENGTH = 64;
+
+    private final File databaseFile;
+    private final ExecutorService io = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "GhostyPlaytime-H2");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Connection connection;
+
+    /**
+     * @param databaseFile database path without the {@code .mv.db} extension
+     */
+    public H2PlaytimeStore(File databaseFile) {
+        this.databaseFile = databaseFile;
+    }
+
+    private Connection connection() throws SQLException {
+        if (connection == null || connection.isClosed()) {
+            // Use the driver directly; DriverManager does not see plugin class loaders
+            connection = new Driver().connect("jdbc:h2:file:" + databaseFile.getAbsolutePath(), new Properties());
+            if (connection == null) throw new SQLException("H2 driver rejected the database URL");
+            try (Statement st = connection.createStatement()) {
+                st.execute("CREATE TABLE IF NOT EXISTS playtime ("
+                        + "uuid UUID PRIMARY KEY, "
+                        + "seconds BIGINT NOT NULL)");
+                // Older versions indexed playtime for reading rankings from disk
+                st.execute("DROP INDEX IF EXISTS playtime_seconds");
+                st.execute("CREATE TABLE IF NOT EXISTS player_names ("
+                        + "uuid UUID PRIMARY KEY, "
+                        + "name VARCHAR(" + MAX_NAME_LENGTH + ") NOT NULL)");
+                st.execute("ALTER TABLE player_names ALTER COLUMN name SET DATA TYPE VARCHAR(" + MAX_NAME_LENGTH + ")");
+            }
+        }
+        return connection;
+    }
+
+    @Override
+    public void load(BiConsumer<UUID, Long> consumer) throws IOException {
+        call(() -> {
+            try (Statement st = connection().createStatement();
+                 ResultSet rs = st.executeQuery("SELECT uuid, seconds FROM playtime")) {
+                while (rs.next()) {
+                    consumer.accept(rs.getObject(1, UUID.class), rs.getLong(2));
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void save(Map<UUID, Long> changes) throws IOException {
+        if (changes.isEmpty()) return;
+        call(() -> {
+            Connection con = connection();
+            con.setAutoCommit(false);
+            try (PreparedStatement ps = con.prepareStatement(
+                    "MERGE INTO playtime (uuid, seconds) KEY (uuid) VALUES (?, ?)")) {
+                int pending = 0;
+                for (Map.Entry<UUID, Long> entry : changes.entrySet()) {
+                    ps.setObject(1, entry.getKey());
+                    ps.setLong(2, entry.getValue());
+                    ps.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        ps.executeBatch();
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) ps.executeBatch();
+                con.commit();
+            } catch (SQLException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(true);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void loadNames(BiConsumer<UUID, String> consumer) throws IOException {
+        call(() -> {
+            try (Statement st = connection().createStatement();
+                 ResultSet rs = st.executeQuery("SELECT uuid, name FROM player_names")) {
+                while (rs.next()) {
+                    consumer.accept(rs.getObject(1, UUID.class), rs.getString(2));
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void saveNames(Map<UUID, String> changes) throws IOException {
+        if (changes.isEmpty()) return;
+        call(() -> {
+            try (PreparedStatement ps = connection().prepareStatement(
+                    "MERGE INTO player_names (uuid, name) KEY (uuid) VALUES (?, ?)")) {
+                for (Map.Entry<UUID, String> entry : changes.entrySet()) {
+                    // Skipped rather than failing the whole batch
+                    if (entry.getValue().length() > MAX_NAME_LENGTH) continue;
+                    ps.setObject(1, entry.getKey());
+                    ps.setString(2, entry.getValue());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public void close() {
+        io.submit(() -> {
+            try {
+                if (connection != null) connection.close();
+            } catch (SQLException ignored) {
+            }
+        });
+        io.shutdown();
+        try {
+            io.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "h2";
+    }
+
+    private <T> T call(Callable<T> task) throws IOException {
+        try {
+            return io.submit(task).get();
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the database", e);
+        } catch (RejectedExecutionException e) {
+            throw new IOException("Database is closed", e);
+        }
+    }
+}
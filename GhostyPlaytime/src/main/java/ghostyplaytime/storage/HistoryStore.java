@@ -0,0 +1,113 @@
+package ghostyplaytime.storage;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * Stores daily playtime buckets, one binary file per day in the history folder
+ * ({@code <epoch day>.bin}). A file holds a record count followed by
+ * (most bits, least bits, seconds) per player active that day. Files are
+ * replaced atomically and deleted once they fall out of retention.
+ */
+public class HistoryStore {
+
+    /** Receives one stored bucket. */
+    public interface BucketConsumer {
+        void accept(long epochDay, UUID uuid, int seconds);
+    }
+
+    private static final int MAGIC = 0x47505448; // "GPTH"
+
+    private final File folder;
+    private final Logger logger;
+
+    public HistoryStore(File folder, Logger logger) {
+        this.folder = folder;
+        this.logger = logger;
+    }
+
+    /**
+     * Reads all days from {@code firstDay} on. Older files are deleted. A file
+     * that cannot be read is logged and skipped as a whole, so the other days
+     * still load and no partial day is handed out.
+     */
+    public void load(long firstDay, BucketConsumer consumer) {
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(".bin"));
+        if (files == null) return;
+        for (File file : files) {
+            long day;
+            try {
+                day = Long.parseLong(file.getName().substring(0, file.getName().length() - 4));
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            if (day < firstDay) {
+                file.delete();
+                continue;
+            }
+            ByteBuffer buffer;
+            try {
+                buffer = read(file);
+            } catch (IOException e) {
+                logger.severe("Could not load playtime history of day " + day + "! " + e.getMessage());
+                continue;
+            }
+            while (buffer.hasRemaining()) {
+                consumer.accept(day, new UUID(buffer.getLong(), buffer.getLong()), buffer.getInt());
+            }
+        }
+    }
+
+    /**
+     * Reads and checks a whole day file, returning its records.
+     */
+    private static ByteBuffer read(File file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a history file: " + file.getName());
+        }
+        int count = buffer.getInt();
+        if (count < 0 || buffer.remaining() != count * 20L) {
+            throw new IOException("Truncated history file: " + file.getName());
+        }
+        return buffer;
+    }
+
+    /**
+     * Replaces the file of one day with the given buckets.
+     */
+    public void saveDay(long epochDay, long[] most, long[] least, int[] seconds, int count) throws IOException {
+        folder.mkdirs();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 + count * 20);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeLong(most[i]);
+                out.writeLong(least[i]);
+                out.writeInt(seconds[i]);
+            }
+        }
+        AtomicFiles.write(new File(folder, epochDay + ".bin"), bytes.toByteArray());
+    }
+
+    /**
+     * Deletes the files of all days before {@code firstDay}.
+     */
+    public void deleteBefore(long firstDay) {
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(".bin"));
+        if (files == null) return;
+        for (File file : files) {
+            try {
+                if (Long.parseLong(file.getName().substring(0, file.getName().length() - 4)) < firstDay) {
+                    file.delete();
+                }
+            } catch (NumberFormatException ignored) {
+                // Not one of ours
+            }
+        }
+    }
+}
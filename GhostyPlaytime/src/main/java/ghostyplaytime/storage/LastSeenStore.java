@@ -0,0 +1,50 @@
+package ghostyplaytime.storage;
+
+import java.io.*;
+
+/**
+ * Stores the day each player in memory was last online, in one binary file
+ * holding a record count followed by (most bits, least bits, epoch day) per
+ * player. The file is replaced atomically on every save.
+ */
+public class LastSeenStore {
+
+    /** Receives one stored record. */
+    public interface DayConsumer {
+        void accept(long msb, long lsb, int epochDay);
+    }
+
+    private static final int MAGIC = 0x4750544C; // "GPTL"
+
+    private final File file;
+
+    public LastSeenStore(File file) {
+        this.file = file;
+    }
+
+    public void load(DayConsumer consumer) throws IOException {
+        if (!file.isFile()) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a last-seen file: " + file.getName());
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                consumer.accept(in.readLong(), in.readLong(), in.readInt());
+            }
+        }
+    }
+
+    public void save(long[] most, long[] least, int[] days, int count) throws IOException {
+        file.getParentFile().mkdirs();
+        AtomicFiles.write(file, stream -> {
+            DataOutputStream out = new DataOutputStream(stream);
+            out.writeInt(MAGIC);
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeLong(most[i]);
+                out.writeLong(least[i]);
+                out.writeInt(days[i]);
+            }
+            out.flush();
+        });
+    }
+}
@@ -0,0 +1,121 @@
+package ghostyplaytime.storage;
+
+import java.io.*;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Exchanges playtime counters between the servers of a network through a
+ * shared folder. Every server writes only its own file
+ * ({@code <server id>.counters}) and reads everyone else's, so no locking is
+ * needed; files are replaced atomically, so readers always see a complete one.
+ * A file holds a record count followed by (most bits, least bits, name,
+ * increments, decrements) per player.
+ */
+public class NetworkStore {
+
+    /** Receives one stored counter. */
+    public interface CounterConsumer {
+        void accept(String server, UUID uuid, String name, long up, long down);
+    }
+
+    private static final int MAGIC = 0x4750544E; // "GPTN"
+    private static final String SUFFIX = ".counters";
+
+    private final File folder;
+    private final String serverId;
+    // lastModified / length of each remote file when it was last read
+    private final Map<String, long[]> seen = new HashMap<>();
+
+    public NetworkStore(File folder, String serverId) {
+        this.folder = folder;
+        this.serverId = serverId;
+    }
+
+    /**
+     * Returns true if a server id can safely be used as a file name.
+     */
+    public static boolean isValidServerId(String id) {
+        return id != null && id.matches("[A-Za-z0-9_-]{1,64}");
+    }
+
+    /**
+     * Returns true if this server has published counters before.
+     */
+    public boolean hasOwn() {
+        return new File(folder, serverId + SUFFIX).isFile();
+    }
+
+    /**
+     * Reads the counters this server published last.
+     */
+    public void loadOwn(CounterConsumer consumer) throws IOException {
+        read(new File(folder, serverId + SUFFIX), serverId, consumer);
+    }
+
+    /**
+     * Replaces this server's file with the given counters.
+     */
+    public void saveOwn(long[] most, long[] least, String[] names, long[] up, long[] down, int count) throws IOException {
+        folder.mkdirs();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(8 + count * 48);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                out.writeLong(most[i]);
+                out.writeLong(least[i]);
+                out.writeUTF(names[i] != null ? names[i] : "");
+                out.writeLong(up[i]);
+                out.writeLong(down[i]);
+            }
+        }
+        AtomicFiles.write(new File(folder, serverId + SUFFIX), bytes.toByteArray());
+    }
+
+    /**
+     * Reads the files of all other servers that changed since the last pull.
+     * Returns the number of files read. A file that cannot be read is retried
+     * on the next pull; the records delivered before the error do no harm,
+     * since merging the same counters twice changes nothing.
+     */
+    public int pull(CounterConsumer consumer) throws IOException {
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files == null) return 0;
+        int read = 0;
+        IOException failure = null;
+        for (File file : files) {
+            String server = file.getName().substring(0, file.getName().length() - SUFFIX.length());
+            if (server.equals(serverId)) continue;
+            long[] stamp = {file.lastModified(), file.length()};
+            long[] last = seen.get(server);
+            if (last != null && last[0] == stamp[0] && last[1] == stamp[1]) continue;
+            try {
+                read(file, server, consumer);
+                seen.put(server, stamp);
+                read++;
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) throw failure;
+        return read;
+    }
+
+    private static void read(File file, String server, CounterConsumer consumer) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) throw new IOException("Not a counter file: " + file.getName());
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                UUID uuid = new UUID(in.readLong(), in.readLong());
+                String name = in.readUTF();
+                consumer.accept(server, uuid, name, in.readLong(), in.readLong());
+            }
+        }
+    }
+
+    public String getServerId() {
+        return serverId;
+    }
+}
@@ -0,0 +1,171 @@
+package ghostyplaytime.storage;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Append-only log of playtime changes.
+ *
+ * Every record is the absolute value of one player (uuid + seconds, 24 bytes),
+ * so replaying the log on top of the last snapshot is idempotent and the last
+ * record for a player always wins. Records are buffered in memory and written
+ * to disk in batches by {@link #flush()}.
+ *
+ * The file starts with the generation of the snapshot it applies to. A journal
+ * whose generation does not match the snapshot is stale (the process stopped
+ * between writing a snapshot and resetting the journal) and is not replayed.
+ */
+public class PlaytimeJournal {
+
+    static final int RECORD_SIZE = 24;
+
+    private final File file;
+    private ByteArrayOutputStream buffer = new ByteArrayOutputStream(RECORD_SIZE * 256);
+    private DataOutputStream out = new DataOutputStream(buffer);
+
+    public PlaytimeJournal(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Buffers a record. Cheap enough to be called from the main thread.
+     */
+    public synchronized void record(UUID uuid, long seconds) {
+        try {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+            out.writeLong(seconds);
+        } catch (IOException e) {
+            // Cannot happen for an in-memory stream
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Removes and returns all buffered records.
+     */
+    public synchronized byte[] drain() {
+        if (buffer.size() == 0) return new byte[0];
+        byte[] data = buffer.toByteArray();
+        buffer = new ByteArrayOutputStream(Math.max(RECORD_SIZE * 256, data.length));
+        out = new DataOutputStream(buffer);
+        return data;
+    }
+
+    /**
+     * Writes all buffered records to the journal file.
+     * Returns the number of records written. On failure the file is cut back
+     * to where it ended before and the buffered records are discarded; the
+     * caller is expected to record them again.
+     */
+    public int flush() throws IOException {
+        byte[] data = drain();
+        if (data.length == 0) return 0;
+        append(data);
+        return data.length / RECORD_SIZE;
+    }
+
+    private void append(byte[] data) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // Start at a record boundary even if an earlier rollback failed
+            long end = channel.size();
+            if (end > Long.BYTES) end -= (end - Long.BYTES) % RECORD_SIZE;
+            channel.truncate(end);
+            channel.position(end);
+            try {
+                write(channel, ByteBuffer.wrap(data));
+                channel.force(false);
+            } catch (IOException e) {
+                // Partial bytes would shift every record appended later, so cut them off again
+                try {
+                    channel.truncate(end);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Writes the whole buffer at the position of the channel.
+     */
+    void write(FileChannel channel, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+
+    /**
+     * Feeds every complete record of the journal file to the consumer, in write order.
+     * Returns the number of records replayed, or -1 if the journal belongs to another
+     * snapshot generation. A torn trailing record is ignored; see {@link #truncateTornRecord()}.
+     */
+    public int replay(long generation, BiConsumer<UUID, Long> consumer) throws IOException {
+        if (file.length() < Long.BYTES) return 0;
+        int count = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readLong() != generation) return -1;
+            while (true) {
+                long most;
+                long least;
+                long seconds;
+                try {
+                    most = in.readLong();
+                    least = in.readLong();
+                    seconds = in.readLong();
+                } catch (EOFException e) {
+                    break;
+                }
+                consumer.accept(new UUID(most, least), seconds);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Cuts a torn trailing record, left by a crash during a write, off the journal
+     * file, so records appended afterwards start at a record boundary again.
+     * Returns the number of bytes removed.
+     */
+    public long truncateTornRecord() throws IOException {
+        long length = file.length();
+        if (length < Long.BYTES) return 0;
+        long torn = (length - Long.BYTES) % RECORD_SIZE;
+        if (torn == 0) return 0;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            channel.truncate(length - torn);
+            channel.force(true);
+        }
+        return torn;
+    }
+
+    /**
+     * Empties the journal file and tags it with the generation of the snapshot
+     * that now holds its contents.
+     */
+    public void reset(long generation) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(Long.BYTES).putLong(0, generation);
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            channel.force(true);
+        }
+    }
+
+    public void delete() {
+        file.delete();
+    }
+
+    public long size() {
+        return file.length();
+    }
+}
@@ -0,0 +1,63 @@
+package ghostyplaytime.storage;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Persistent backend for playtime values.
+ *
+ * The state in {@link ghostyplaytime.PlaytimeManager} (in memory, plus the cold
+ * index when tiering is enabled) is authoritative; a store only has to load
+ * everything once and accept batches of changed values.
+ */
+public interface PlaytimeStore {
+
+    /**
+     * Streams every stored player to the consumer.
+     */
+    void load(BiConsumer<UUID, Long> consumer) throws IOException;
+
+    /**
+     * Inserts or updates the given players.
+     */
+    void save(Map<UUID, Long> changes) throws IOException;
+
+    /**
+     * Streams every stored UUID to last-known-name mapping to the consumer.
+     */
+    void loadNames(BiConsumer<UUID, String> consumer) throws IOException;
+
+    /**
+     * Inserts or updates the given player names.
+     */
+    void saveNames(Map<UUID, String> changes) throws IOException;
+
+    /**
+     * Runs housekeeping such as journal compaction after a save.
+     * Returns true if any work was done.
+     */
+    default boolean maintain() throws IOException {
+        return false;
+    }
+
+    /**
+     * Total bytes written by saves and housekeeping so far, or 0 if the
+     * store cannot tell (e.g. a database managing its own files).
+     */
+    default long getBytesWritten() {
+        return 0;
+    }
+
+    /**
+     * Releases files and connections. Called once after the final save.
+     */
+    default void close() {
+    }
+
+    /**
+     * Short name used in logs and messages.
+     */
+    String getName();
+}
@@ -0,0 +1,269 @@
+package ghostyplaytime.storage;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+/**
+ * Streaming reader for the flat {@code <uuid>: <seconds>} layout of playtime.yml,
+ * as an alternative to building a {@code YamlConfiguration} tree of the whole file.
+ *
+ * The file is cut into chunks at line boundaries that are parsed in parallel;
+ * entries are handed to the consumer chunk by chunk in file order, so the last
+ * value of a duplicate key still wins. Only the subset of YAML the plugin
+ * writes is understood (plain or quoted keys, integer values, comments). Any
+ * other syntax raises {@link UnsupportedSyntaxException}, after which the
+ * caller falls back to the full YAML parser; entries delivered before that
+ * point are delivered again by the fallback.
+ */
+final class PlaytimeYamlParser {
+
+    /** Receives one parsed entry. */
+    interface EntryConsumer {
+        void accept(long msb, long lsb, long seconds);
+    }
+
+    /** The file uses YAML syntax beyond the flat layout. */
+    static final class UnsupportedSyntaxException extends IOException {
+        UnsupportedSyntaxException(String message) {
+            super(message);
+        }
+    }
+
+    static final String GENERATION_KEY = "journal-generation";
+
+    private static final int CHUNK_SIZE = 1 << 20;
+    /** Longest line a chunk may read past its end; real lines are under 80 bytes. */
+    private static final int MAX_LINE = 4096;
+    private static final byte[] GENERATION_BYTES = GENERATION_KEY.getBytes(StandardCharsets.US_ASCII);
+
+    private PlaytimeYamlParser() {
+    }
+
+    /**
+     * Parses the file and returns the journal generation stored in it (0 if none).
+     */
+    static long parse(File file, int threads, EntryConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunks = (int) Math.max(1, (size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+            if (threads <= 1 || chunks == 1) {
+                long generation = 0;
+                for (int i = 0; i < chunks; i++) {
+                    generation = deliver(parseChunk(channel, size, (long) i * CHUNK_SIZE), consumer, generation);
+                }
+                return generation;
+            }
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                List<Future<Chunk>> parsed = new ArrayList<>(chunks);
+                for (int i = 0; i < chunks; i++) {
+                    long from = (long) i * CHUNK_SIZE;
+                    parsed.add(pool.submit(() -> parseChunk(channel, size, from)));
+                }
+                // Delivering chunk i overlaps with parsing the later ones
+                long generation = 0;
+                for (Future<Chunk> chunk : parsed) {
+                    generation = deliver(chunk.get(), consumer, generation);
+                }
+                return generation;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while loading " + file.getName());
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) throw io;
+                throw new IOException(e.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Reads names.yml ({@code <uuid>: <name>} per line) line by line. Names may be
+     * plain, single-quoted or double-quoted without escapes.
+     */
+    static void parseNames(File file, BiConsumer<UUID, String> consumer) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.stripTrailing();
+                if (line.isEmpty() || line.charAt(0) == '#') continue;
+                int colon = line.indexOf(": ");
+                if (colon <= 0 || !isKeyChar((byte) line.charAt(0))) throw unsupported(line);
+                String value = line.substring(colon + 2);
+                String name;
+                if (value.length() >= 2 && value.charAt(0) == '\'' && value.endsWith("'")) {
+                    name = value.substring(1, value.length() - 1).replace("''", "'");
+                } else if (value.length() >= 2 && value.charAt(0) == '"' && value.endsWith("\"")
+                        && value.indexOf('\\') < 0) {
+                    name = value.substring(1, value.length() - 1);
+                } else if (!value.isEmpty() && "'\"[]{}|>&*!%@`#,".indexOf(value.charAt(0)) < 0) {
+                    name = value;
+                } else {
+                    throw unsupported(line);
+                }
+                UUID uuid;
+                try {
+                    uuid = UUID.fromString(line.substring(0, colon));
+                } catch (IllegalArgumentException e) {
+                    continue;
+                }
+                consumer.accept(uuid, name);
+            }
+        }
+    }
+
+    private static long deliver(Chunk chunk, EntryConsumer consumer, long generation) {
+        for (int i = 0; i < chunk.count; i++) {
+            consumer.accept(chunk.most[i], chunk.least[i], chunk.values[i]);
+        }
+        return chunk.generation >= 0 ? chunk.generation : generation;
+    }
+
+    /** Entries of the lines starting within one chunk, as parallel columns. */
+    private static final class Chunk {
+        long[] most = new long[CHUNK_SIZE / 48];
+        long[] least = new long[most.length];
+        long[] values = new long[most.length];
+        int count;
+        long generation = -1;
+
+        void add(long msb, long lsb, long seconds) {
+            if (count == most.length) {
+                most = Arrays.copyOf(most, count * 2);
+                least = Arrays.copyOf(least, count * 2);
+                values = Arrays.copyOf(values, count * 2);
+            }
+            most[count] = msb;
+            least[count] = lsb;
+            values[count] = seconds;
+            count++;
+        }
+    }
+
+    /**
+     * Parses the lines that start in {@code [from, from + CHUNK_SIZE)}. The byte
+     * before the chunk tells whether its first line starts there or belongs to
+     * the previous chunk; the last line may run past the chunk end.
+     */
+    private static Chunk parseChunk(FileChannel channel, long size, long from) throws IOException {
+        long start = Math.max(0, from - 1);
+        long end = Math.min(size, from + CHUNK_SIZE + MAX_LINE);
+        byte[] bytes = new byte[(int) (end - start)];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) break;
+        }
+        int limit = buffer.position();
+        int owned = (int) Math.min(limit, from + CHUNK_SIZE - start);
+
+        int pos = 0;
+        if (from > 0) {
+            // Skip the tail of a line that started in the previous chunk
+            while (pos < limit && bytes[pos] != '\n') pos++;
+            pos++;
+        }
+        Chunk chunk = new Chunk();
+        while (pos < owned) {
+            int eol = pos;
+            while (eol < limit && bytes[eol] != '\n') eol++;
+            if (eol == limit && start + limit < size) {
+                throw new UnsupportedSyntaxException("Line longer than " + MAX_LINE + " bytes");
+            }
+            parseLine(bytes, pos, eol, chunk);
+            pos = eol + 1;
+        }
+        return chunk;
+    }
+
+    private static void parseLine(byte[] b, int from, int to, Chunk chunk) throws UnsupportedSyntaxException {
+        while (to > from && (b[to - 1] == '\r' || b[to - 1] == ' ')) to--;
+        if (from == to || b[from] == '#') return;
+
+        int keyFrom = from;
+        int keyTo;
+        int colon;
+        if (b[from] == '\'' || b[from] == '"') {
+            keyFrom = from + 1;
+            keyTo = keyFrom;
+            while (keyTo < to && b[keyTo] != b[from]) keyTo++;
+            colon = keyTo + 1;
+            if (colon >= to || b[colon] != ':') throw unsupported(b, from, to);
+        } else {
+            keyTo = from;
+            while (keyTo < to && isKeyChar(b[keyTo])) keyTo++;
+            colon = keyTo;
+            if (keyTo == from || colon >= to || b[colon] != ':') throw unsupported(b, from, to);
+        }
+        if (colon + 1 >= to || b[colon + 1] != ' ') throw unsupported(b, from, to);
+
+        long value = parseLong(b, colon + 2, to);
+        if (value < 0) throw unsupported(b, from, to);
+        if (keyTo - keyFrom == 36) {
+            long a = parseHex(b, keyFrom, 8);
+            long c = parseHex(b, keyFrom + 9, 4);
+            long d = parseHex(b, keyFrom + 14, 4);
+            long e = parseHex(b, keyFrom + 19, 4);
+            long f = parseHex(b, keyFrom + 24, 12);
+            if ((a | c | d | e | f) >= 0 && b[keyFrom + 8] == '-' && b[keyFrom + 13] == '-'
+                    && b[keyFrom + 18] == '-' && b[keyFrom + 23] == '-') {
+                chunk.add(a << 32 | c << 16 | d, e << 48 | f, value);
+            }
+        } else if (Arrays.equals(b, keyFrom, keyTo, GENERATION_BYTES, 0, GENERATION_BYTES.length)) {
+            chunk.generation = value;
+        }
+        // Other keys are ignored, like the YAML loader skips keys that are no UUID
+    }
+
+    private static UnsupportedSyntaxException unsupported(byte[] b, int from, int to) {
+        return unsupported(new String(b, from, Math.min(to - from, 80), StandardCharsets.UTF_8));
+    }
+
+    private static UnsupportedSyntaxException unsupported(String line) {
+        return new UnsupportedSyntaxException("Unsupported line: " + line);
+    }
+
+    private static boolean isKeyChar(byte c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '-' || c == '_' || c == '.';
+    }
+
+    /** Parses up to 12 hex digits, or returns -1. */
+    private static long parseHex(byte[] b, int from, int digits) {
+        long value = 0;
+        for (int i = from; i < from + digits; i++) {
+            int c = b[i];
+            int digit = c >= '0' && c <= '9' ? c - '0'
+                    : c >= 'a' && c <= 'f' ? c - 'a' + 10
+                    : c >= 'A' && c <= 'F' ? c - 'A' + 10 : -1;
+            if (digit < 0) return -1;
+            value = value << 4 | digit;
+        }
+        return value;
+    }
+
+    /** Parses a non-negative decimal, or returns -1. */
+    private static long parseLong(byte[] b, int from, int to) {
+        if (from >= to || to - from > 18) return -1;
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = b[i] - '0';
+            if (digit < 0 || digit > 9) return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,125 @@
+package ghostyplaytime.storage;
+
+import ghostyplaytime.LatencyHistogram;
+
+import java.io.UncheckedIOException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs all saves on one writer thread and coalesces save requests.
+ *
+ * At most one save is in progress and at most one is pending. Every request
+ * made before the pending save starts is answered by that same save, so a
+ * burst of quits or timer ticks results in a single extra write.
+ */
+public class SaveService {
+
+    private final Runnable flush;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "GhostyPlaytime-Save");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicReference<CompletableFuture<Void>> pending = new AtomicReference<>();
+
+    private final LatencyHistogram flushTimes = new LatencyHistogram();
+    private volatile long lastFlushMillis;
+    private volatile long maxFlushMillis;
+    private volatile long flushCount;
+
+    /**
+     * @param flush the save itself; only ever invoked from the writer thread
+     *              (or from the caller of {@link #close()} once the writer stopped).
+     *              It logs what it could not write and then throws an
+     *              {@link UncheckedIOException}, which fails the save's future.
+     */
+    public SaveService(Runnable flush) {
+        this.flush = flush;
+    }
+
+    /**
+     * Schedules a save unless one is already pending. The returned future
+     * completes once a save containing all changes up to this call has finished.
+     */
+    public CompletableFuture<Void> requestSave() {
+        while (true) {
+            CompletableFuture<Void> current = pending.get();
+            if (current != null) return current;
+            CompletableFuture<Void> next = new CompletableFuture<>();
+            if (pending.compareAndSet(null, next)) {
+                try {
+                    writer.execute(() -> run(next));
+                } catch (RejectedExecutionException e) {
+                    pending.compareAndSet(next, null);
+                    next.completeExceptionally(e);
+                }
+                return next;
+            }
+        }
+    }
+
+    private void run(CompletableFuture<Void> flight) {
+        // Requests from now on need a new save, since this one may already miss them
+        pending.compareAndSet(flight, null);
+        try {
+            timedFlush();
+            flight.complete(null);
+        } catch (Throwable t) {
+            flight.completeExceptionally(t);
+        }
+    }
+
+    private void timedFlush() {
+        long start = System.nanoTime();
+        try {
+            flush.run();
+        } finally {
+            long nanos = System.nanoTime() - start;
+            flushTimes.record(nanos);
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            lastFlushMillis = millis;
+            if (millis > maxFlushMillis) maxFlushMillis = millis;
+            flushCount++;
+        }
+    }
+
+    /**
+     * Waits for the writer to finish queued work, then runs a final save on the
+     * calling thread. A failure of that save has already been logged by the flush.
+     */
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(30, TimeUnit.SECONDS)) {
+                writer.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            timedFlush();
+        } catch (UncheckedIOException ignored) {
+            // Nobody is left to retry it
+        }
+    }
+
+    public long getLastFlushMillis() {
+        return lastFlushMillis;
+    }
+
+    public long getMaxFlushMillis() {
+        return maxFlushMillis;
+    }
+
+    public long getFlushCount() {
+        return flushCount;
+    }
+
+    /**
+     * Durations of all saves, including housekeeping.
+     */
+    public LatencyHistogram getFlushTimes() {
+        return flushTimes;
+    }
+}
@@ -0,0 +1,183 @@
+package ghostyplaytime.storage;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reads the playtime the server itself recorded in the world's stats folder
+ * ({@code <uuid>.json} per player). The files are parsed in parallel on a
+ * fork-join pool with a streaming reader that stops at the playtime value, so
+ * the rest of a stats file is skipped instead of built into a tree. Progress
+ * can be polled from another thread while {@link #run()} is working.
+ */
+public class VanillaStatsImporter {
+
+    private static final int TICKS_PER_SECOND = 20;
+    /** Files per fork-join leaf; small, since a single file costs an open and a read. */
+    private static final int SLICE = 64;
+
+    private final File folder;
+    private final int parallelism;
+    private final AtomicInteger done = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final LongAdder bytes = new LongAdder();
+    private volatile int total = -1;
+
+    public VanillaStatsImporter(File folder, int parallelism) {
+        this.folder = folder;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Parses all stats files and returns the playtime in seconds per player.
+     * Players without recorded playtime are left out; unreadable files are
+     * counted in {@link #getFailed()}.
+     */
+    public Map<UUID, Long> run() throws IOException {
+        File[] files = folder.listFiles((dir, name) -> name.endsWith(".json"));
+        if (files == null) throw new IOException("Not a directory: " + folder);
+        UUID[] uuids = new UUID[files.length];
+        long[] seconds = new long[files.length];
+        total = files.length;
+
+        // Every leaf writes only its own slots of the arrays, so no merge step is needed
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new Slice(files, uuids, seconds, 0, files.length));
+        } finally {
+            pool.shutdown();
+        }
+
+        Map<UUID, Long> result = new HashMap<>(files.length * 2);
+        for (int i = 0; i < files.length; i++) {
+            if (uuids[i] != null && seconds[i] > 0) result.put(uuids[i], seconds[i]);
+        }
+        return result;
+    }
+
+    /** Files found, or -1 while the folder is still being listed. */
+    public int getTotal() {
+        return total;
+    }
+
+    public int getDone() {
+        return done.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public long getBytesRead() {
+        return bytes.sum();
+    }
+
+    private class Slice extends RecursiveAction {
+
+        private final File[] files;
+        private final UUID[] uuids;
+        private final long[] seconds;
+        private final int from;
+        private final int to;
+
+        Slice(File[] files, UUID[] uuids, long[] seconds, int from, int to) {
+            this.files = files;
+            this.uuids = uuids;
+            this.seconds = seconds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SLICE) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Slice(files, uuids, seconds, from, mid),
+                        new Slice(files, uuids, seconds, mid, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                read(i);
+                done.incrementAndGet();
+            }
+        }
+
+        private void read(int i) {
+            File file = files[i];
+            String name = file.getName();
+            UUID uuid;
+            try {
+                uuid = UUID.fromString(name.substring(0, name.length() - 5));
+            } catch (IllegalArgumentException e) {
+                failed.incrementAndGet();
+                return;
+            }
+            try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+                long ticks = readPlayTicks(reader);
+                bytes.add(file.length());
+                if (ticks > 0) {
+                    uuids[i] = uuid;
+                    seconds[i] = ticks / TICKS_PER_SECOND;
+                }
+            } catch (IOException | IllegalStateException | NumberFormatException e) {
+                // Malformed or truncated, e.g. written while the server crashed
+                failed.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Returns the playtime in ticks from a stats file, or -1 if it has none.
+     * Understands {@code minecraft:play_time} (1.17+), its former name
+     * {@code minecraft:play_one_minute} (1.13 to 1.16) and the flat
+     * {@code stat.playOneMinute} of older versions.
+     */
+    static long readPlayTicks(Reader reader) throws IOException {
+        // JsonReader buffers on its own, and closing it closes the reader
+        JsonReader json = new JsonReader(reader);
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            if (name.equals("stats") && json.peek() == JsonToken.BEGIN_OBJECT) {
+                long ticks = readCategories(json);
+                if (ticks >= 0) return ticks;
+            } else if (name.equals("stat.playOneMinute")) {
+                return json.nextLong();
+            } else {
+                json.skipValue();
+            }
+        }
+        return -1;
+    }
+
+    private static long readCategories(JsonReader json) throws IOException {
+        json.beginObject();
+        while (json.hasNext()) {
+            if (!json.nextName().equals("minecraft:custom") || json.peek() != JsonToken.BEGIN_OBJECT) {
+                json.skipValue();
+                continue;
+            }
+            json.beginObject();
+            while (json.hasNext()) {
+                String stat = json.nextName();
+                if (stat.equals("minecraft:play_time") || stat.equals("minecraft:play_one_minute")) {
+                    return json.nextLong();
+                }
+                json.skipValue();
+            }
+            json.endObject();
+        }
+        json.endObject();
+        return -1;
+    }
+}
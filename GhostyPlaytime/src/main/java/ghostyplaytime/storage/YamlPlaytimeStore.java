@@ -0,0 +1,406 @@
+package ghostyplaytime.storage;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.logging.Logger;
+
+/**
+ * Stores playtime in playtime.yml, optionally backed by an append-only journal.
+ *
+ * In journal mode a save only appends records to playtime.journal; playtime.yml
+ * is rewritten by {@link #maintain()} once the journal grows past the compaction
+ * size, or after startup replayed records. Not thread-safe; all writes come from
+ * the {@link SaveService} writer thread.
+ *
+ * Both files are read with {@link PlaytimeYamlParser} and rewritten by streaming
+ * the old file with the pending changes applied, so the store itself only keeps
+ * the values not yet in playtime.yml. Files with syntax the parser does not
+ * understand (e.g. edited by hand) are read with the YAML parser instead and
+ * rewritten in the flat layout on the next save.
+ */
+public class YamlPlaytimeStore implements PlaytimeStore {
+
+    private static final String GENERATION_KEY = PlaytimeYamlParser.GENERATION_KEY;
+
+    private final File dataFile;
+    private final File journalFile;
+    private final File namesFile;
+    private final Logger logger;
+    private final boolean journalEnabled;
+    private final long compactBytes;
+    private final int loadThreads;
+    // Values changed since playtime.yml was last written
+    private final Map<UUID, Long> pending = new HashMap<>();
+    // Set if the files could not be streamed; pending then holds everything
+    private boolean rewriteData;
+    private Map<UUID, String> rewriteNames;
+    private PlaytimeJournal journal;
+    private long generation;
+    private boolean compactPending;
+    // Only written by the saving thread
+    private volatile long bytesWritten;
+
+    public YamlPlaytimeStore(File dataFolder, Logger logger, boolean journalEnabled, long compactBytes) {
+        this(dataFolder, logger, journalEnabled, compactBytes, 1);
+    }
+
+    /**
+     * @param loadThreads threads parsing playtime.yml in parallel on load
+     */
+    public YamlPlaytimeStore(File dataFolder, Logger logger, boolean journalEnabled, long compactBytes, int loadThreads) {
+        this.loadThreads = loadThreads;
+        this.dataFile = new File(dataFolder, "playtime.yml");
+        this.journalFile = new File(dataFolder, "playtime.journal");
+        this.namesFile = new File(dataFolder, "names.yml");
+        this.logger = logger;
+        this.journalEnabled = journalEnabled;
+        this.compactBytes = compactBytes;
+    }
+
+    @Override
+    public void load(BiConsumer<UUID, Long> consumer) throws IOException {
+        if (!dataFile.exists()) {
+            dataFile.getParentFile().mkdirs();
+            dataFile.createNewFile();
+        }
+        pending.clear();
+        rewriteData = false;
+        readData(consumer);
+
+        // Replay changes made after the last snapshot
+        PlaytimeJournal log = new PlaytimeJournal(journalFile);
+        int replayed = 0;
+        try {
+            replayed = log.replay(generation, (uuid, seconds) -> {
+                pending.put(uuid, seconds);
+                consumer.accept(uuid, seconds);
+            });
+            if (replayed > 0) {
+                logger.info("Replayed " + replayed + " records from playtime.journal.");
+            } else if (replayed < 0) {
+                logger.warning("Ignoring stale playtime.journal (already contained in playtime.yml).");
+            }
+        } catch (IOException e) {
+            logger.severe("Could not replay playtime.journal! " + e.getMessage());
+        }
+
+        if (journalEnabled) {
+            if (replayed <= 0 && log.size() != Long.BYTES) {
+                // Missing or stale journal: start a fresh one for the current snapshot
+                try {
+                    log.reset(generation);
+                } catch (IOException e) {
+                    logger.severe("Could not create playtime.journal! " + e.getMessage());
+                    return;
+                }
+            } else if (replayed > 0) {
+                // New records must not be appended behind the remains of a torn one
+                try {
+                    long torn = log.truncateTornRecord();
+                    if (torn > 0) logger.warning("Removed an incomplete record (" + torn + " bytes) from playtime.journal.");
+                } catch (IOException e) {
+                    logger.severe("Could not repair playtime.journal! " + e.getMessage());
+                    return;
+                }
+            }
+            journal = log;
+            compactPending = replayed > 0 || rewriteData;
+        } else if (log.size() > 0) {
+            if (replayed > 0) writeSnapshot(generation);
+            log.delete();
+        }
+    }
+
+    /**
+     * Reads playtime.yml with the journal replayed on top, without writing,
+     * compacting or deleting either file. Used to import the data into another store.
+     */
+    public void read(BiConsumer<UUID, Long> consumer) throws IOException {
+        if (!dataFile.exists()) return;
+        readData(consumer);
+        int replayed = new PlaytimeJournal(journalFile).replay(generation, consumer);
+        if (replayed < 0) {
+            logger.warning("Ignoring stale playtime.journal (already contained in playtime.yml).");
+        }
+    }
+
+    private void readData(BiConsumer<UUID, Long> consumer) throws IOException {
+        try {
+            generation = PlaytimeYamlParser.parse(dataFile, loadThreads,
+                    (msb, lsb, seconds) -> consumer.accept(new UUID(msb, lsb), seconds));
+        } catch (PlaytimeYamlParser.UnsupportedSyntaxException e) {
+            logger.info("playtime.yml is not in the flat layout (" + e.getMessage() + "), reading it as YAML.");
+            loadYaml(consumer);
+        }
+    }
+
+    /**
+     * Reads playtime.yml with the YAML parser, for files the flat parser rejects.
+     * Everything is kept pending until it has been written in the flat layout.
+     */
+    private void loadYaml(BiConsumer<UUID, Long> consumer) {
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(dataFile);
+        generation = config.getLong(GENERATION_KEY, 0L);
+        for (String key : config.getKeys(false)) {
+            try {
+                UUID uuid = UUID.fromString(key);
+                long seconds = config.getLong(key);
+                pending.put(uuid, seconds);
+                consumer.accept(uuid, seconds);
+            } catch (IllegalArgumentException ignored) {
+                // Skip invalid keys
+            }
+        }
+        rewriteData = true;
+    }
+
+    @Override
+    public void save(Map<UUID, Long> changes) throws IOException {
+        pending.putAll(changes);
+        if (journal == null) {
+            writeSnapshot(generation);
+            return;
+        }
+        for (Map.Entry<UUID, Long> entry : changes.entrySet()) {
+            journal.record(entry.getKey(), entry.getValue());
+        }
+        bytesWritten += (long) journal.flush() * PlaytimeJournal.RECORD_SIZE;
+    }
+
+    @Override
+    public void loadNames(BiConsumer<UUID, String> consumer) {
+        if (!namesFile.exists()) return;
+        rewriteNames = null;
+        try {
+            PlaytimeYamlParser.parseNames(namesFile, consumer);
+            return;
+        } catch (PlaytimeYamlParser.UnsupportedSyntaxException e) {
+            logger.info("names.yml is not in the flat layout (" + e.getMessage() + "), reading it as YAML.");
+        } catch (IOException e) {
+            logger.severe("Could not read names.yml! " + e.getMessage());
+            return;
+        }
+        YamlConfiguration config = YamlConfiguration.loadConfiguration(namesFile);
+        rewriteNames = new HashMap<>();
+        for (String key : config.getKeys(false)) {
+            try {
+                UUID uuid = UUID.fromString(key);
+                String name = config.getString(key);
+                if (name == null) continue;
+                rewriteNames.put(uuid, name);
+                consumer.accept(uuid, name);
+            } catch (IllegalArgumentException ignored) {
+                // Skip invalid keys
+            }
+        }
+    }
+
+    /**
+     * Names change rarely (first join, renames), so names.yml is simply rewritten,
+     * copying the lines of unchanged players.
+     */
+    @Override
+    public void saveNames(Map<UUID, String> changes) throws IOException {
+        Map<UUID, String> remaining = new HashMap<>(changes);
+        Map<UUID, String> all = rewriteNames;
+        write(namesFile, out -> {
+            if (all != null) {
+                all.putAll(remaining);
+                remaining.clear();
+                remaining.putAll(all);
+            } else if (namesFile.exists()) {
+                try (BufferedReader reader = Files.newBufferedReader(namesFile.toPath(), StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        UUID uuid = keyOf(line);
+                        String name = uuid != null ? remaining.remove(uuid) : null;
+                        if (name != null) {
+                            out.name(uuid, name);
+                        } else {
+                            out.text(line).text("\n");
+                        }
+                    }
+                }
+            }
+            for (Map.Entry<UUID, String> entry : remaining.entrySet()) {
+                out.name(entry.getKey(), entry.getValue());
+            }
+        });
+        rewriteNames = null;
+    }
+
+    private static UUID keyOf(String line) {
+        if (line.length() < 37 || line.charAt(36) != ':') return null;
+        try {
+            return UUID.fromString(line.substring(0, 36));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the full state to playtime.yml and starts a new, empty journal
+     * when compaction is due.
+     */
+    @Override
+    public boolean maintain() throws IOException {
+        if (journal == null) return false;
+        if (!compactPending && journal.size() <= compactBytes) return false;
+
+        long next = generation + 1;
+        writeSnapshot(next);
+        generation = next;
+        compactPending = false;
+        try {
+            journal.reset(next);
+        } catch (IOException e) {
+            // Records appended to the old journal would be ignored as stale, so
+            // fall back to rewriting playtime.yml on every save
+            journal = null;
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Rewrites playtime.yml: the players of the current file in their order,
+     * with pending values applied, followed by the players that are new.
+     */
+    private void writeSnapshot(long snapshotGeneration) throws IOException {
+        Map<UUID, Long> remaining = new HashMap<>(pending);
+        boolean fromScratch = rewriteData;
+        write(dataFile, out -> {
+            if (snapshotGeneration > 0) out.text(GENERATION_KEY + ": ").number(snapshotGeneration).text("\n");
+            if (!fromScratch) {
+                PlaytimeYamlParser.parse(dataFile, 1, (msb, lsb, seconds) -> {
+                    Long changed = remaining.isEmpty() ? null : remaining.remove(new UUID(msb, lsb));
+                    out.entry(msb, lsb, changed != null ? changed : seconds);
+                });
+            }
+            for (Map.Entry<UUID, Long> entry : remaining.entrySet()) {
+                UUID uuid = entry.getKey();
+                out.entry(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), entry.getValue());
+            }
+        });
+        pending.clear();
+        rewriteData = false;
+    }
+
+    /** Writes a file through a {@link LineWriter}. */
+    private interface Lines {
+        void writeTo(LineWriter out) throws IOException;
+    }
+
+    private void write(File file, Lines lines) throws IOException {
+        AtomicFiles.write(file, out -> {
+            LineWriter writer = new LineWriter(out);
+            try {
+                lines.writeTo(writer);
+                writer.drain();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        });
+        bytesWritten += file.length();
+    }
+
+    /**
+     * Encodes lines into a buffer and hands it to the stream when full. The
+     * consumer interfaces of the parser cannot throw, so write errors are
+     * wrapped and unwrapped again in {@link #write(File, Lines)}.
+     */
+    private static final class LineWriter {
+
+        private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+        private final OutputStream out;
+        private final byte[] bytes = new byte[1 << 16];
+        private int size;
+
+        LineWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        void entry(long msb, long lsb, long seconds) {
+            uuid(msb, lsb).text(": ").number(seconds).text("\n");
+        }
+
+        void name(UUID uuid, String name) {
+            uuid(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits())
+                    .text(": '").text(name.replace("'", "''")).text("'\n");
+        }
+
+        LineWriter uuid(long msb, long lsb) {
+            ensure(36);
+            hex(msb >>> 32, 8);
+            bytes[size++] = '-';
+            hex(msb >>> 16, 4);
+            bytes[size++] = '-';
+            hex(msb, 4);
+            bytes[size++] = '-';
+            hex(lsb >>> 48, 4);
+            bytes[size++] = '-';
+            hex(lsb, 12);
+            return this;
+        }
+
+        LineWriter number(long value) {
+            return text(Long.toString(value));
+        }
+
+        LineWriter text(String text) {
+            byte[] encoded = text.getBytes(StandardCharsets.UTF_8);
+            if (encoded.length > bytes.length) {
+                drain();
+                write(encoded, encoded.length);
+                return this;
+            }
+            ensure(encoded.length);
+            System.arraycopy(encoded, 0, bytes, size, encoded.length);
+            size += encoded.length;
+            return this;
+        }
+
+        private void hex(long value, int digits) {
+            for (int i = digits - 1; i >= 0; i--) {
+                bytes[size + i] = HEX[(int) (value & 0xF)];
+                value >>>= 4;
+            }
+            size += digits;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > bytes.length) drain();
+        }
+
+        void drain() {
+            write(bytes, size);
+            size = 0;
+        }
+
+        private void write(byte[] data, int length) {
+            try {
+                out.write(data, 0, length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public String getName() {
+        return journal != null ? "yaml+journal" : "yaml";
+    }
+}
@@ -0,0 +1,166 @@
+package ghostyplaytime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColdTierTest {
+
+    // Leaderboard order: playtime descending, ties by signed UUID halves
+    private static final Comparator<Map.Entry<UUID, Long>> ORDER = Comparator
+            .comparing((Map.Entry<UUID, Long> e) -> -e.getValue())
+            .thenComparingLong(e -> e.getKey().getMostSignificantBits())
+            .thenComparingLong(e -> e.getKey().getLeastSignificantBits());
+
+    @TempDir
+    File folder;
+
+    @Test
+    void rewriteMergesInLeaderboardOrderAndDropsRemovedPositions() throws IOException {
+        Random random = new Random(3);
+        ColdTier tier = ColdTier.open(folder, Logger.getAnonymousLogger());
+        List<Map.Entry<UUID, Long>> expected = new ArrayList<>();
+
+        for (int generation = 0; generation < 5; generation++) {
+            // Drop a few players, as if they were moved back into memory
+            Set<UUID> dropped = new HashSet<>();
+            for (int i = 0; i < tier.capacity() / 4; i++) {
+                int position = random.nextInt(tier.capacity());
+                tier.remove(position);
+                dropped.add(tier.entry(position).getKey());
+            }
+            expected.removeIf(e -> dropped.contains(e.getKey()));
+
+            List<Map.Entry<UUID, Long>> added = players(random, 200);
+            expected.addAll(added);
+            expected.sort(ORDER);
+
+            ColdTier next = rewrite(tier, added);
+            tier.delete();
+            tier = next;
+
+            assertEquals(0, tier.removedCount());
+            assertEquals(expected.size(), tier.size());
+            for (int position = 0; position < tier.capacity(); position++) {
+                assertEquals(expected.get(position), tier.entry(position));
+                UUID uuid = expected.get(position).getKey();
+                assertEquals(position, tier.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+                assertEquals("p" + uuid.getLeastSignificantBits(), tier.name(position));
+            }
+        }
+        // Only the newest generation is left on disk
+        assertArrayEquals(new String[]{"cold-5.idx"}, folder.list());
+    }
+
+    @Test
+    void liveBeforeAndCountBeforeSkipRemovedPlayers() throws IOException {
+        Random random = new Random(11);
+        ColdTier tier = rewrite(ColdTier.open(folder, Logger.getAnonymousLogger()), sorted(players(random, 500)));
+        boolean[] removed = new boolean[tier.capacity()];
+        for (int i = 0; i < 150; i++) {
+            int position = random.nextInt(tier.capacity());
+            tier.remove(position);
+            removed[position] = true;
+        }
+
+        int live = 0;
+        for (int position = 0; position <= tier.capacity(); position++) {
+            assertEquals(live, tier.liveBefore(position));
+            if (position < tier.capacity()) {
+                assertEquals(removed[position], tier.isRemoved(position));
+                if (!removed[position]) live++;
+            }
+        }
+        assertEquals(live, tier.size());
+
+        for (int i = 0; i < 200; i++) {
+            // Mostly new keys, some equal to players in the tier
+            Map.Entry<UUID, Long> key = i % 4 == 0
+                    ? tier.entry(random.nextInt(tier.capacity()))
+                    : players(random, 1).get(0);
+            int before = 0;
+            for (int position = 0; position < tier.capacity(); position++) {
+                if (!removed[position] && ORDER.compare(tier.entry(position), key) < 0) before++;
+            }
+            UUID uuid = key.getKey();
+            assertEquals(before, tier.countBefore(key.getValue(), uuid.getMostSignificantBits(),
+                    uuid.getLeastSignificantBits()));
+        }
+    }
+
+    @Test
+    void removedPlayersAreNotFound() throws IOException {
+        ColdTier tier = rewrite(ColdTier.open(folder, Logger.getAnonymousLogger()), sorted(players(new Random(5), 10)));
+        Map.Entry<UUID, Long> player = tier.entry(4);
+        UUID uuid = player.getKey();
+        String name = tier.name(4);
+        assertEquals(4, tier.findByName(name.toUpperCase()));
+
+        tier.remove(4);
+        tier.remove(4);
+        assertEquals(1, tier.removedCount());
+        assertEquals(-1, tier.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()));
+        assertEquals(-1, tier.findByName(name));
+    }
+
+    @Test
+    void copyKeepsTheRemovedPositionsOfItsTime() throws IOException {
+        ColdTier tier = rewrite(ColdTier.open(folder, Logger.getAnonymousLogger()), sorted(players(new Random(9), 10)));
+        tier.remove(2);
+        ColdTier copy = tier.copy();
+        tier.remove(7);
+
+        assertTrue(copy.isRemoved(2));
+        assertFalse(copy.isRemoved(7));
+        assertEquals(9, copy.size());
+        assertEquals(8, tier.size());
+    }
+
+    private static ColdTier rewrite(ColdTier tier, List<Map.Entry<UUID, Long>> players) throws IOException {
+        List<Map.Entry<UUID, Long>> ordered = sorted(players);
+        int count = ordered.size();
+        long[] most = new long[count];
+        long[] least = new long[count];
+        long[] values = new long[count];
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++) {
+            UUID uuid = ordered.get(i).getKey();
+            most[i] = uuid.getMostSignificantBits();
+            least[i] = uuid.getLeastSignificantBits();
+            values[i] = ordered.get(i).getValue();
+            names[i] = "p" + least[i];
+        }
+        return tier.rewrite(tier.removedPositions(), most, least, values, names, count);
+    }
+
+    private static List<Map.Entry<UUID, Long>> sorted(List<Map.Entry<UUID, Long>> players) {
+        List<Map.Entry<UUID, Long>> result = new ArrayList<>(players);
+        result.sort(ORDER);
+        return result;
+    }
+
+    // Narrow ranges so equal playtimes and equal most significant bits are common
+    private static List<Map.Entry<UUID, Long>> players(Random random, int count) {
+        List<Map.Entry<UUID, Long>> players = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            players.add(Map.entry(new UUID(random.nextInt(16) - 8, random.nextLong()), (long) random.nextInt(40)));
+        }
+        return players;
+    }
+}
@@ -0,0 +1,121 @@
+package ghostyplaytime;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LeaderboardIndexTest {
+
+    // Leaderboard order: playtime descending, ties by signed UUID halves
+    private static final Comparator<Map.Entry<UUID, Long>> ORDER = Comparator
+            .comparing((Map.Entry<UUID, Long> e) -> -e.getValue())
+            .thenComparingLong(e -> e.getKey().getMostSignificantBits())
+            .thenComparingLong(e -> e.getKey().getLeastSignificantBits());
+
+    @Test
+    void matchesSortedListUnderRandomOperations() {
+        for (long seed = 1; seed <= 20; seed++) {
+            run(new Random(seed), 2_000);
+        }
+    }
+
+    @Test
+    void emptyIndex() {
+        PlaytimeTable table = new PlaytimeTable();
+        LeaderboardIndex index = new LeaderboardIndex(table);
+
+        assertEquals(0, index.size());
+        assertEquals(List.of(), index.range(0, 10));
+        assertEquals(0, index.countBefore(100, 0, 0));
+    }
+
+    @Test
+    void rangeClampsToSize() {
+        PlaytimeTable table = new PlaytimeTable();
+        LeaderboardIndex index = new LeaderboardIndex(table);
+        for (int i = 0; i < 5; i++) {
+            index.insert(table.insert(i, i, i * 10L));
+        }
+
+        assertEquals(2, index.range(3, 10).size());
+        assertEquals(List.of(), index.range(5, 10));
+        assertEquals(List.of(), index.range(0, 0));
+        assertEquals(5, index.range(0, Integer.MAX_VALUE).size());
+    }
+
+    private static void run(Random random, int steps) {
+        PlaytimeTable table = new PlaytimeTable();
+        LeaderboardIndex index = new LeaderboardIndex(table);
+        List<Integer> ids = new ArrayList<>();
+
+        for (int step = 0; step < steps; step++) {
+            int op = random.nextInt(10);
+            if (op < 5 || ids.isEmpty()) {
+                UUID uuid = randomUuid(random);
+                if (table.find(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits()) >= 0) continue;
+                int id = table.insert(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), randomValue(random));
+                index.insert(id);
+                ids.add(id);
+            } else if (op < 7) {
+                int id = ids.remove(random.nextInt(ids.size()));
+                index.remove(id);
+                table.remove(id);
+            } else {
+                int id = ids.get(random.nextInt(ids.size()));
+                index.remove(id);
+                table.set(id, randomValue(random));
+                index.insert(id);
+            }
+            if (step % 50 == 0) verify(random, table, index, ids);
+        }
+        verify(random, table, index, ids);
+    }
+
+    private static void verify(Random random, PlaytimeTable table, LeaderboardIndex index, List<Integer> ids) {
+        List<Map.Entry<UUID, Long>> expected = new ArrayList<>();
+        for (int id : ids) {
+            expected.add(Map.entry(table.uuid(id), table.value(id)));
+        }
+        expected.sort(ORDER);
+
+        assertEquals(expected.size(), index.size());
+        assertEquals(expected, index.range(0, expected.size()));
+        for (int id : ids) {
+            assertEquals(expected.indexOf(Map.entry(table.uuid(id), table.value(id))) + 1, index.rankOf(id));
+        }
+        for (int i = 0; i < 10; i++) {
+            int from = random.nextInt(expected.size() + 5);
+            int count = random.nextInt(50);
+            List<Map.Entry<UUID, Long>> slice = expected.subList(Math.min(from, expected.size()),
+                    Math.min(from + count, expected.size()));
+            assertEquals(slice, index.range(from, count));
+        }
+        for (int i = 0; i < 20; i++) {
+            // Mostly keys that are not indexed, some equal to indexed ones
+            Map.Entry<UUID, Long> key = i % 4 == 0 && !expected.isEmpty()
+                    ? expected.get(random.nextInt(expected.size()))
+                    : Map.entry(randomUuid(random), randomValue(random));
+            int before = 0;
+            while (before < expected.size() && ORDER.compare(expected.get(before), key) < 0) before++;
+            UUID uuid = key.getKey();
+            assertEquals(before, index.countBefore(key.getValue(), uuid.getMostSignificantBits(),
+                    uuid.getLeastSignificantBits()));
+        }
+    }
+
+    // Narrow ranges so equal playtimes and equal most significant bits are common
+    private static long randomValue(Random random) {
+        return random.nextInt(40);
+    }
+
+    private static UUID randomUuid(Random random) {
+        return new UUID(random.nextInt(16) - 8, random.nextLong());
+    }
+}
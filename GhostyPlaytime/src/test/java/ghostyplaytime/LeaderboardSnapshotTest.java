@@ -0,0 +1,58 @@
+package ghostyplaytime;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LeaderboardSnapshotTest {
+
+    // Leaderboard order: playtime descending, ties by UUID
+    private static final Comparator<Map.Entry<UUID, Long>> ORDER = Comparator
+            .comparing((Map.Entry<UUID, Long> e) -> -e.getValue())
+            .thenComparing(Map.Entry::getKey);
+
+    @Test
+    void rankAndPlaytimeMatchPages() {
+        Random random = new Random(7);
+        List<Map.Entry<UUID, Long>> entries = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            entries.add(Map.entry(new UUID(random.nextLong(), random.nextLong()), (long) random.nextInt(50)));
+        }
+        entries.sort(ORDER);
+        LeaderboardSnapshot snapshot = snapshot(entries);
+
+        for (int i = 0; i < entries.size(); i++) {
+            UUID uuid = entries.get(i).getKey();
+            assertEquals(i + 1, snapshot.rank(uuid));
+            assertEquals(entries.get(i).getValue(), snapshot.playtime(uuid));
+            assertEquals(entries.get(i), snapshot.page(i, 1).get(0));
+        }
+    }
+
+    @Test
+    void unknownPlayer() {
+        LeaderboardSnapshot snapshot = snapshot(List.of(Map.entry(UUID.randomUUID(), 10L)));
+
+        assertEquals(-1, snapshot.rank(UUID.randomUUID()));
+        assertEquals(-1, snapshot.playtime(UUID.randomUUID()));
+    }
+
+    private static LeaderboardSnapshot snapshot(List<Map.Entry<UUID, Long>> sorted) {
+        long[] most = new long[sorted.size()];
+        long[] least = new long[sorted.size()];
+        long[] values = new long[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            most[i] = sorted.get(i).getKey().getMostSignificantBits();
+            least[i] = sorted.get(i).getKey().getLeastSignificantBits();
+            values[i] = sorted.get(i).getValue();
+        }
+        return new LeaderboardSnapshot(0, 0, most, least, values, null);
+    }
+}
@@ -0,0 +1,102 @@
+package ghostyplaytime;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class NetworkCountersTest {
+
+    /** One published state of a server's counters for a player. */
+    private record Update(String server, int id, long up, long down) {
+    }
+
+    @Test
+    void mergeIsIdempotent() {
+        NetworkCounters counters = new NetworkCounters();
+        assertEquals(100, counters.merge("lobby", 3, 120, 20));
+        assertEquals(0, counters.merge("lobby", 3, 120, 20));
+        assertEquals(0, counters.merge("lobby", 3, 120, 20));
+
+        assertEquals(100, counters.total(3));
+    }
+
+    @Test
+    void staleCopiesDoNotUndoNewerOnes() {
+        NetworkCounters counters = new NetworkCounters();
+        counters.merge("lobby", 0, 500, 100);
+        assertEquals(0, counters.merge("lobby", 0, 300, 50));
+
+        assertEquals(400, counters.total(0));
+    }
+
+    @Test
+    void mergeIsOrderIndependent() {
+        Random random = new Random(7);
+        List<Update> updates = new ArrayList<>();
+        String[] servers = {"lobby", "survival", "creative"};
+        for (String server : servers) {
+            for (int id = 0; id < 20; id++) {
+                // Each server publishes growing counters, so any interleaving is a valid history
+                long up = 0;
+                long down = 0;
+                for (int version = 0; version < 5; version++) {
+                    up += random.nextInt(1_000);
+                    down += random.nextInt(100);
+                    updates.add(new Update(server, id, up, down));
+                }
+            }
+        }
+
+        long[] expected = totals(updates);
+        for (int round = 0; round < 10; round++) {
+            List<Update> shuffled = new ArrayList<>(updates);
+            Collections.shuffle(shuffled, random);
+            // Replaying part of the history again must not change anything either
+            shuffled.addAll(shuffled.subList(0, shuffled.size() / 3));
+            assertArrayEquals(expected, totals(shuffled));
+        }
+    }
+
+    @Test
+    void mergeReportsTheChangeOfThatServer() {
+        NetworkCounters counters = new NetworkCounters();
+        counters.recordLocal(1, 50);
+        assertEquals(30, counters.merge("lobby", 1, 40, 10));
+        assertEquals(15, counters.merge("lobby", 1, 60, 15));
+        assertEquals(-5, counters.merge("lobby", 1, 60, 20));
+
+        assertEquals(90, counters.total(1));
+        assertEquals(1, counters.getServerCount());
+    }
+
+    @Test
+    void localChangesAreSplitIntoIncrementsAndDecrements() {
+        NetworkCounters counters = new NetworkCounters();
+        counters.recordLocal(2, 100);
+        counters.recordLocal(2, -30);
+        counters.recordLocal(2, 0);
+
+        assertEquals(100, counters.ownUp(2));
+        assertEquals(30, counters.ownDown(2));
+        assertEquals(70, counters.total(2));
+        assertEquals(0, counters.total(5));
+    }
+
+    private static long[] totals(List<Update> updates) {
+        NetworkCounters counters = new NetworkCounters();
+        for (Update update : updates) {
+            counters.merge(update.server(), update.id(), update.up(), update.down());
+        }
+        long[] totals = new long[20];
+        for (int id = 0; id < totals.length; id++) {
+            totals[id] = counters.total(id);
+        }
+        return totals;
+    }
+}
@@ -0,0 +1,123 @@
+package ghostyplaytime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PlaytimeHistoryTest {
+
+    private static final long TODAY = 1_000;
+
+    private PlaytimeTable table;
+    private PlaytimeHistory history;
+    private int alice;
+    private int bob;
+
+    @BeforeEach
+    void setUp() {
+        table = new PlaytimeTable();
+        alice = table.insert(0, 1, 0);
+        bob = table.insert(0, 2, 0);
+        history = new PlaytimeHistory(table, 30, TODAY);
+    }
+
+    @Test
+    void bucketsCountTowardsTheirWindows() {
+        history.add(alice, 100, TODAY);
+        history.add(alice, 50, TODAY);
+        history.add(alice, 200, TODAY - 3);
+        history.add(alice, 400, TODAY - 20);
+        history.add(bob, 1_000, TODAY - 1);
+
+        assertEquals(150, history.value(Period.DAY, alice));
+        assertEquals(350, history.value(Period.WEEK, alice));
+        assertEquals(750, history.value(Period.MONTH, alice));
+        assertEquals(0, history.value(Period.DAY, bob));
+        assertEquals(1_000, history.value(Period.WEEK, bob));
+
+        assertEquals(1, history.rankOf(Period.DAY, alice));
+        assertEquals(-1, history.rankOf(Period.DAY, bob));
+        assertEquals(List.of(Map.entry(table.uuid(bob), 1_000L), Map.entry(table.uuid(alice), 350L)),
+                history.range(Period.WEEK, 0, 10));
+    }
+
+    @Test
+    void daysOutsideRetentionAreIgnored() {
+        history.add(alice, 100, TODAY - 30);
+        history.add(alice, 0, TODAY);
+
+        assertEquals(0, history.value(Period.MONTH, alice));
+        assertEquals(0, history.size(Period.MONTH));
+    }
+
+    @Test
+    void rollingDropsDaysLeavingEachWindow() {
+        history.add(alice, 100, TODAY);
+        history.add(alice, 200, TODAY - 6);
+
+        history.roll(TODAY + 1);
+        assertEquals(0, history.value(Period.DAY, alice));
+        assertEquals(100, history.value(Period.WEEK, alice));
+        assertEquals(300, history.value(Period.MONTH, alice));
+        assertEquals(0, history.size(Period.DAY));
+
+        history.roll(TODAY + 23);
+        assertEquals(300, history.value(Period.MONTH, alice));
+        history.roll(TODAY + 24);
+        assertEquals(100, history.value(Period.MONTH, alice));
+
+        // Past the whole retention everything is gone
+        history.roll(TODAY + 100);
+        assertEquals(0, history.value(Period.MONTH, alice));
+        assertEquals(0, history.size(Period.MONTH));
+        assertEquals(TODAY + 71, history.getFirstDay());
+    }
+
+    @Test
+    void addingALaterDayRollsForward() {
+        history.add(alice, 100, TODAY);
+        history.add(alice, 50, TODAY + 1);
+
+        assertEquals(TODAY + 1, history.getToday());
+        assertEquals(50, history.value(Period.DAY, alice));
+        assertEquals(150, history.value(Period.WEEK, alice));
+    }
+
+    @Test
+    void bucketsSaturateInsteadOfOverflowing() {
+        history.add(alice, Integer.MAX_VALUE - 10, TODAY);
+        history.add(alice, 100, TODAY);
+        history.add(alice, Integer.MAX_VALUE, TODAY - 1);
+
+        assertEquals(Integer.MAX_VALUE, history.value(Period.DAY, alice));
+        assertEquals(2L * Integer.MAX_VALUE, history.value(Period.WEEK, alice));
+
+        // Leaving the window subtracts exactly what the day holds
+        history.roll(TODAY + 6);
+        assertEquals(Integer.MAX_VALUE, history.value(Period.WEEK, alice));
+        history.roll(TODAY + 7);
+        assertEquals(0, history.value(Period.WEEK, alice));
+        assertEquals(-1, history.rankOf(Period.WEEK, alice));
+    }
+
+    @Test
+    void drainDirtyReturnsChangedDaysOnce() {
+        history.add(alice, 100, TODAY);
+        history.add(bob, 30, TODAY);
+        history.add(alice, 40, TODAY - 2);
+
+        List<PlaytimeHistory.DayBuckets> days = history.drainDirty();
+        assertEquals(2, days.size());
+        PlaytimeHistory.DayBuckets today = days.stream().filter(d -> d.day() == TODAY).findFirst().orElseThrow();
+        assertEquals(2, today.count());
+        long total = 0;
+        for (int i = 0; i < today.count(); i++) total += today.seconds()[i];
+        assertEquals(130, total);
+
+        assertEquals(List.of(), history.drainDirty());
+    }
+}
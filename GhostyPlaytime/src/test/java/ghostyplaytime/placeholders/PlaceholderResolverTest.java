@@ -0,0 +1,151 @@
+package ghostyplaytime.placeholders;
+
+import ghostyplaytime.DurationFormatter;
+import ghostyplaytime.GhostyPlaytime;
+import ghostyplaytime.LanguageManager;
+import ghostyplaytime.Period;
+import ghostyplaytime.PlaytimeManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PlaceholderResolverTest {
+
+    private static final UUID ONLINE = new UUID(0, 1);
+    private static final UUID TOP = new UUID(0, 2);
+    private static final UUID OFFLINE = new UUID(0, 3);
+    private static final UUID UNKNOWN = new UUID(0, 4);
+
+    private final DurationFormatter formatter = new DurationFormatter(DurationFormatter.Style.COMPACT,
+            new String[]{"d", "h", "m", "s"}, new String[4], new String[4]);
+    private PlaytimeManager manager;
+    private PlaceholderResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        GhostyPlaytime plugin = mock(GhostyPlaytime.class);
+        LanguageManager language = mock(LanguageManager.class);
+        manager = mock(PlaytimeManager.class);
+        when(plugin.getPlaytimeManager()).thenReturn(manager);
+        when(plugin.getLanguageManager()).thenReturn(language);
+        when(language.getDurationFormatter()).thenReturn(formatter);
+
+        when(manager.getSessionPlayers()).thenReturn(Set.of(ONLINE));
+        when(manager.getPlaytimes(any())).thenReturn(Map.of(ONLINE, 3725L));
+        when(manager.getRanks(any())).thenReturn(Map.of(ONLINE, 2));
+        when(manager.getTopPlayers(anyInt())).thenReturn(List.of(Map.entry(TOP, 90000L), Map.entry(ONLINE, 3725L)));
+        when(manager.getPlayerName(TOP)).thenReturn("Alice");
+        when(manager.getPlayerName(ONLINE)).thenReturn("Bob");
+        when(manager.getPlayerCount()).thenReturn(3);
+        when(manager.isHistoryEnabled()).thenReturn(true);
+        when(manager.getPlaytime(ONLINE, Period.DAY)).thenReturn(60L);
+        when(manager.getPlaytime(ONLINE, Period.WEEK)).thenReturn(600L);
+        when(manager.getPlaytime(ONLINE, Period.MONTH)).thenReturn(3600L);
+        when(manager.getRank(ONLINE, Period.DAY)).thenReturn(1);
+        when(manager.getRank(ONLINE, Period.WEEK)).thenReturn(2);
+        when(manager.getRank(ONLINE, Period.MONTH)).thenReturn(-1);
+        when(manager.getPlaytime(OFFLINE)).thenReturn(7200L);
+        when(manager.getRank(OFFLINE)).thenReturn(3);
+        when(manager.getRank(UNKNOWN)).thenReturn(-1);
+        when(manager.getRank(UNKNOWN, Period.DAY)).thenReturn(-1);
+
+        resolver = new PlaceholderResolver(plugin);
+        resolver.refresh();
+    }
+
+    @Test
+    void playerValues() {
+        assertEquals(formatter.format(3725), resolver.resolve(ONLINE, "playtime"));
+        assertEquals("3725", resolver.resolve(ONLINE, "playtime_seconds"));
+        assertEquals("62", resolver.resolve(ONLINE, "playtime_minutes"));
+        assertEquals("1", resolver.resolve(ONLINE, "playtime_hours"));
+        assertEquals("2", resolver.resolve(ONLINE, "rank"));
+    }
+
+    @Test
+    void periodValues() {
+        assertEquals(formatter.format(3725), resolver.resolve(ONLINE, "playtime_all"));
+        assertEquals(formatter.format(60), resolver.resolve(ONLINE, "playtime_day"));
+        assertEquals(formatter.format(600), resolver.resolve(ONLINE, "playtime_week"));
+        assertEquals(formatter.format(3600), resolver.resolve(ONLINE, "playtime_month"));
+        assertEquals("2", resolver.resolve(ONLINE, "rank_all"));
+        assertEquals("1", resolver.resolve(ONLINE, "rank_day"));
+        assertEquals("2", resolver.resolve(ONLINE, "rank_week"));
+        assertEquals("-", resolver.resolve(ONLINE, "rank_month"));
+    }
+
+    @Test
+    void topListAndPlayerCount() {
+        assertEquals("Alice", resolver.resolve(null, "top_1_name"));
+        assertEquals(formatter.format(90000), resolver.resolve(null, "top_1_playtime"));
+        assertEquals("Bob", resolver.resolve(ONLINE, "top_2_name"));
+        assertEquals(formatter.format(3725), resolver.resolve(null, "top_2_playtime"));
+        // Fewer players than places
+        assertEquals("-", resolver.resolve(null, "top_3_name"));
+        assertEquals("-", resolver.resolve(null, "top_10_playtime"));
+        assertEquals("3", resolver.resolve(null, "players"));
+    }
+
+    @Test
+    void identifiersAreCaseInsensitive() {
+        assertEquals("3725", resolver.resolve(ONLINE, "PlayTime_Seconds"));
+        assertEquals("Alice", resolver.resolve(null, "TOP_1_NAME"));
+    }
+
+    @Test
+    void unknownIdentifiers() {
+        assertNull(resolver.resolve(ONLINE, "nonsense"));
+        assertNull(resolver.resolve(ONLINE, "playtime_year"));
+        assertNull(resolver.resolve(ONLINE, "rank_"));
+        assertNull(resolver.resolve(null, "top_0_name"));
+        assertNull(resolver.resolve(null, "top_11_name"));
+        assertNull(resolver.resolve(null, "top_x_name"));
+        assertNull(resolver.resolve(null, "top_1_uuid"));
+        assertNull(resolver.resolve(null, "top_1"));
+    }
+
+    @Test
+    void playerPlaceholdersNeedAPlayer() {
+        assertNull(resolver.resolve(null, "playtime"));
+        assertNull(resolver.resolve(null, "rank"));
+        assertNull(resolver.resolve(null, "playtime_day"));
+    }
+
+    @Test
+    void offlinePlayerIsComputedOnRequest() {
+        assertEquals(formatter.format(7200), resolver.resolve(OFFLINE, "playtime"));
+        assertEquals("2", resolver.resolve(OFFLINE, "playtime_hours"));
+        assertEquals("3", resolver.resolve(OFFLINE, "rank"));
+        assertEquals(formatter.format(0), resolver.resolve(OFFLINE, "playtime_day"));
+    }
+
+    @Test
+    void unknownPlayerHasNoTimeAndNoRank() {
+        assertEquals(formatter.format(0), resolver.resolve(UNKNOWN, "playtime"));
+        assertEquals("0", resolver.resolve(UNKNOWN, "playtime_seconds"));
+        assertEquals("-", resolver.resolve(UNKNOWN, "rank"));
+        assertEquals("-", resolver.resolve(UNKNOWN, "rank_day"));
+    }
+
+    @Test
+    void refreshPicksUpNewValues() {
+        when(manager.getPlaytimes(any())).thenReturn(Map.of(ONLINE, 3785L));
+        when(manager.getRanks(any())).thenReturn(Map.of(ONLINE, 1));
+        resolver.refresh();
+
+        assertEquals("3785", resolver.resolve(ONLINE, "playtime_seconds"));
+        assertEquals(formatter.format(3785), resolver.resolve(ONLINE, "playtime"));
+        assertEquals("1", resolver.resolve(ONLINE, "rank"));
+    }
+}
@@ -0,0 +1,69 @@
+package ghostyplaytime.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class HistoryStoreTest {
+
+    @TempDir
+    File folder;
+
+    private HistoryStore store() {
+        return new HistoryStore(folder, Logger.getAnonymousLogger());
+    }
+
+    @Test
+    void savedDaysLoadBack() throws IOException {
+        HistoryStore store = store();
+        store.saveDay(100, new long[]{1, 2}, new long[]{3, 4}, new int[]{60, 120}, 2);
+        store.saveDay(101, new long[]{1}, new long[]{3}, new int[]{30}, 1);
+
+        List<String> loaded = load(store, 100);
+        assertEquals(List.of("100 " + new UUID(1, 3) + " 60", "100 " + new UUID(2, 4) + " 120",
+                "101 " + new UUID(1, 3) + " 30"), loaded);
+    }
+
+    @Test
+    void daysBeforeRetentionAreDeleted() throws IOException {
+        HistoryStore store = store();
+        store.saveDay(99, new long[]{1}, new long[]{1}, new int[]{10}, 1);
+        store.saveDay(100, new long[]{1}, new long[]{1}, new int[]{20}, 1);
+
+        assertEquals(List.of("100 " + new UUID(1, 1) + " 20"), load(store, 100));
+        assertFalse(new File(folder, "99.bin").exists());
+    }
+
+    @Test
+    void unreadableFilesAreSkippedWhole() throws IOException {
+        HistoryStore store = store();
+        store.saveDay(100, new long[]{1, 2}, new long[]{1, 2}, new int[]{10, 20}, 2);
+        store.saveDay(101, new long[]{1, 2}, new long[]{1, 2}, new int[]{30, 40}, 2);
+        store.saveDay(102, new long[]{1}, new long[]{1}, new int[]{50}, 1);
+        // Day 100 loses half of its last record, day 101 is not a history file at all
+        try (RandomAccessFile file = new RandomAccessFile(new File(folder, "100.bin"), "rw")) {
+            file.setLength(file.length() - 10);
+        }
+        Files.writeString(new File(folder, "101.bin").toPath(), "garbage");
+
+        assertEquals(List.of("102 " + new UUID(1, 1) + " 50"), load(store, 100));
+    }
+
+    private static List<String> load(HistoryStore store, long firstDay) {
+        List<String> result = new ArrayList<>();
+        store.load(firstDay, (day, uuid, seconds) -> result.add(day + " " + uuid + " " + seconds));
+        result.sort(null);
+        return result;
+    }
+}
@@ -0,0 +1,139 @@
+package ghostyplaytime.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PlaytimeJournalTest {
+
+    private static final UUID ALICE = new UUID(1, 1);
+    private static final UUID BOB = new UUID(2, 2);
+    private static final UUID CAROL = new UUID(3, 3);
+
+    @TempDir
+    File folder;
+
+    @Test
+    void replaysRecordsInWriteOrder() throws IOException {
+        PlaytimeJournal journal = new PlaytimeJournal(new File(folder, "playtime.journal"));
+        journal.reset(7);
+        journal.record(ALICE, 10);
+        journal.record(BOB, 20);
+        assertEquals(2, journal.flush());
+        journal.record(ALICE, 30);
+        assertEquals(1, journal.flush());
+        assertEquals(0, journal.flush());
+
+        assertEquals(List.of(Map.entry(ALICE, 10L), Map.entry(BOB, 20L), Map.entry(ALICE, 30L)), replay(journal, 7));
+    }
+
+    @Test
+    void otherGenerationIsNotReplayed() throws IOException {
+        PlaytimeJournal journal = new PlaytimeJournal(new File(folder, "playtime.journal"));
+        journal.reset(7);
+        journal.record(ALICE, 10);
+        journal.flush();
+
+        assertEquals(-1, journal.replay(8, (uuid, seconds) -> {
+        }));
+    }
+
+    @Test
+    void failedAppendLeavesNoPartialRecord() throws IOException {
+        File file = new File(folder, "playtime.journal");
+        FailingJournal journal = new FailingJournal(file);
+        journal.reset(1);
+        journal.record(ALICE, 10);
+        journal.flush();
+
+        // The disk fills up halfway through the second batch
+        journal.failAfter = 30;
+        journal.record(BOB, 20);
+        journal.record(CAROL, 30);
+        assertThrows(IOException.class, journal::flush);
+        assertEquals(Long.BYTES + PlaytimeJournal.RECORD_SIZE, file.length());
+
+        // The caller records the changes again once writing works
+        journal.failAfter = -1;
+        journal.record(BOB, 20);
+        journal.record(CAROL, 30);
+        journal.flush();
+
+        assertEquals(List.of(Map.entry(ALICE, 10L), Map.entry(BOB, 20L), Map.entry(CAROL, 30L)), replay(journal, 1));
+    }
+
+    @Test
+    void appendStartsAtARecordBoundary() throws IOException {
+        File file = new File(folder, "playtime.journal");
+        PlaytimeJournal journal = new PlaytimeJournal(file);
+        journal.reset(1);
+        journal.record(ALICE, 10);
+        journal.flush();
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.seek(raw.length());
+            raw.write(new byte[5]);
+        }
+
+        journal.record(BOB, 20);
+        journal.flush();
+
+        assertEquals(List.of(Map.entry(ALICE, 10L), Map.entry(BOB, 20L)), replay(journal, 1));
+    }
+
+    @Test
+    void tornRecordIsTruncated() throws IOException {
+        File file = new File(folder, "playtime.journal");
+        PlaytimeJournal journal = new PlaytimeJournal(file);
+        journal.reset(1);
+        journal.record(ALICE, 10);
+        journal.record(BOB, 20);
+        journal.flush();
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")) {
+            raw.setLength(raw.length() - 4);
+        }
+
+        assertEquals(List.of(Map.entry(ALICE, 10L)), replay(journal, 1));
+        assertEquals(PlaytimeJournal.RECORD_SIZE - 4, journal.truncateTornRecord());
+        assertEquals(0, journal.truncateTornRecord());
+        assertEquals(Long.BYTES + PlaytimeJournal.RECORD_SIZE, file.length());
+    }
+
+    private static List<Map.Entry<UUID, Long>> replay(PlaytimeJournal journal, long generation) throws IOException {
+        List<Map.Entry<UUID, Long>> records = new ArrayList<>();
+        journal.replay(generation, (uuid, seconds) -> records.add(Map.entry(uuid, seconds)));
+        return records;
+    }
+
+    /** Writes only the first {@code failAfter} bytes of a batch, then fails like a full disk. */
+    private static final class FailingJournal extends PlaytimeJournal {
+
+        int failAfter = -1;
+
+        FailingJournal(File file) {
+            super(file);
+        }
+
+        @Override
+        void write(FileChannel channel, ByteBuffer buf) throws IOException {
+            if (failAfter < 0) {
+                super.write(channel, buf);
+                return;
+            }
+            buf.limit(buf.position() + failAfter);
+            super.write(channel, buf);
+            throw new IOException("No space left on device");
+        }
+    }
+}
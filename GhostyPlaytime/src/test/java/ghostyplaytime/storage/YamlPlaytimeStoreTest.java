@@ -0,0 +1,70 @@
+package ghostyplaytime.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class YamlPlaytimeStoreTest {
+
+    private static final UUID ALICE = new UUID(1, 1);
+    private static final UUID BOB = new UUID(2, 2);
+
+    @TempDir
+    File folder;
+
+    @Test
+    void journalIsReplayedOnLoad() throws IOException {
+        YamlPlaytimeStore store = open(1 << 20);
+        store.save(Map.of(ALICE, 10L, BOB, 20L));
+        store.save(Map.of(ALICE, 15L));
+        // No compaction happened, so the values are only in the journal
+
+        assertEquals(Map.of(ALICE, 15L, BOB, 20L), load(open(1 << 20)));
+    }
+
+    @Test
+    void compactionMovesTheJournalIntoTheSnapshot() throws IOException {
+        YamlPlaytimeStore store = open(1);
+        store.save(Map.of(ALICE, 10L, BOB, 20L));
+        assertTrue(store.maintain());
+        assertEquals(Long.BYTES, new File(folder, "playtime.journal").length());
+        store.save(Map.of(BOB, 25L));
+
+        assertEquals(Map.of(ALICE, 10L, BOB, 25L), load(open(1)));
+    }
+
+    @Test
+    void disablingTheJournalFoldsItIntoTheSnapshot() throws IOException {
+        YamlPlaytimeStore store = open(1 << 20);
+        store.save(Map.of(ALICE, 10L));
+
+        Map<UUID, Long> loaded = new HashMap<>();
+        new YamlPlaytimeStore(folder, Logger.getAnonymousLogger(), false, 0).load(loaded::put);
+        assertEquals(Map.of(ALICE, 10L), loaded);
+        assertFalse(new File(folder, "playtime.journal").exists());
+        assertEquals(Map.of(ALICE, 10L), load(open(1 << 20)));
+    }
+
+    private YamlPlaytimeStore open(long compactBytes) throws IOException {
+        YamlPlaytimeStore store = new YamlPlaytimeStore(folder, Logger.getAnonymousLogger(), true, compactBytes);
+        store.load((uuid, seconds) -> {
+        });
+        return store;
+    }
+
+    private static Map<UUID, Long> load(YamlPlaytimeStore store) throws IOException {
+        Map<UUID, Long> values = new HashMap<>();
+        store.read(values::put);
+        return values;
+    }
+}